@@ -0,0 +1,80 @@
+package io.polypen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Composition {
+
+    static final int BASE_CASE_THRESHOLD = 16;
+
+    /**
+     * Computes {@code p(q(x))} by splitting {@code p = low + x^m * high} with {@code m} a power of two,
+     * so that {@code p(q) = low(q) + q^m * high(q)}.
+     * The powers {@code q^(2^k)} are computed once by repeated squaring.
+     */
+    static int[] compose(int[] p, int[] q) {
+        List<int[]> powers = new ArrayList<>();
+        powers.add(q);
+        while ((1 << powers.size()) < p.length) {
+            int[] last = powers.get(powers.size() - 1);
+            powers.add(Multiplication.multiply(last, last.length, last, last.length));
+        }
+        return compose(p, 0, p.length, q, powers);
+    }
+
+    /**
+     * Computes {@code p(x + a)}.
+     */
+    static int[] taylorShift(int[] p, int a) {
+        if (p.length <= BASE_CASE_THRESHOLD) {
+            return syntheticShift(p, 0, p.length, a);
+        }
+        return compose(p, new int[]{a, 1});
+    }
+
+    private static int[] compose(int[] p, int offset, int length, int[] q, List<int[]> powers) {
+        if (length <= BASE_CASE_THRESHOLD) {
+            if (q.length == 2 && q[1] == 1) {
+                return syntheticShift(p, offset, length, q[0]);
+            }
+            return horner(p, offset, length, q);
+        }
+        int k = 31 - Integer.numberOfLeadingZeros(length - 1);
+        int m = 1 << k;
+        int[] low = compose(p, offset, m, q, powers);
+        int[] high = compose(p, offset + m, length - m, q, powers);
+        int[] qm = powers.get(k);
+        int[] result = new int[Math.max(low.length, qm.length + high.length - 1)];
+        System.arraycopy(low, 0, result, 0, low.length);
+        Multiplication.mulAdd(high, 0, high.length, qm, 0, qm.length, result, 0, result.length);
+        return result;
+    }
+
+    private static int[] horner(int[] p, int offset, int length, int[] q) {
+        int[] result = {p[offset + length - 1]};
+        for (int i = length - 2; i >= 0; i--) {
+            int[] next = Multiplication.multiply(result, result.length, q, q.length);
+            next[0] += p[offset + i];
+            result = next;
+        }
+        return result;
+    }
+
+    // repeated synthetic division by (x - a), quadratic but without multiplications of polynomials
+    private static int[] syntheticShift(int[] p, int offset, int length, int a) {
+        int[] c = new int[length];
+        System.arraycopy(p, offset, c, 0, length);
+        if (a == 0) {
+            return c;
+        }
+        for (int i = 0; i < length - 1; i++) {
+            for (int j = length - 2; j >= i; j--) {
+                c[j] += a * c[j + 1];
+            }
+        }
+        return c;
+    }
+
+    private Composition() {
+    }
+}
@@ -0,0 +1,226 @@
+package io.polypen;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Polynomial interpolation: Newton divided differences for few points,
+ * and the subproduct tree for many points.
+ */
+final class Interpolation {
+
+    static final int NEWTON_THRESHOLD = 64;
+
+    // primes below 2^31 for the multi-modular integer interpolation; the third one checks the result
+    private static final long P1 = 2147483647L;
+    private static final long P2 = 2147483629L;
+    private static final long P3 = 2147483587L;
+
+    /**
+     * Interpolates over the integers.
+     *
+     * @throws ArithmeticException if the interpolating polynomial
+     *                             does not have {@code int} coefficients
+     */
+    static int[] interpolate(long[] xs, long[] ys) {
+        checkArguments(xs, ys);
+        if (xs.length <= NEWTON_THRESHOLD) {
+            return newton(xs, ys);
+        }
+        Modular f1 = new Modular(P1);
+        Modular f2 = new Modular(P2);
+        Modular f3 = new Modular(P3);
+        long[] r1 = interpolateReduced(xs, ys, f1);
+        long[] r2 = interpolateReduced(xs, ys, f2);
+        long[] r3 = interpolateReduced(xs, ys, f3);
+        if (r1 == null || r2 == null || r3 == null) {
+            // two points are congruent modulo one of the primes
+            return newton(xs, ys);
+        }
+        // Chinese remaindering into (-P1 * P2 / 2, P1 * P2 / 2]
+        long m = P1 * P2;
+        long inverse = f2.inverse(P1 % P2);
+        int[] result = new int[xs.length];
+        for (int i = 0; i < result.length; i++) {
+            long t = f2.multiply(f2.subtract(r2[i], r1[i] % P2), inverse);
+            long c = r1[i] + P1 * t;
+            if (c > m / 2) {
+                c -= m;
+            }
+            if (c < Integer.MIN_VALUE || c > Integer.MAX_VALUE || f3.reduce(c) != r3[i]) {
+                throw new ArithmeticException("interpolating polynomial does not have int coefficients");
+            }
+            result[i] = (int) c;
+        }
+        return result;
+    }
+
+    /**
+     * Interpolates over {@code Z/p}. The result coefficients are in {@code [0, p)}.
+     *
+     * @throws ArithmeticException if two points are congruent modulo {@code p}
+     */
+    static int[] interpolate(long[] xs, long[] ys, int p) {
+        checkArguments(xs, ys);
+        Modular field = new Modular(p);
+        long[] result = interpolateReduced(xs, ys, field);
+        if (result == null) {
+            throw new ArithmeticException("points are not distinct mod " + p);
+        }
+        int[] coefficients = new int[result.length];
+        for (int i = 0; i < result.length; i++) {
+            coefficients[i] = (int) result[i];
+        }
+        return coefficients;
+    }
+
+    private static void checkArguments(long[] xs, long[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("length mismatch: " + xs.length + " points, " + ys.length + " values");
+        }
+        if (xs.length == 0) {
+            throw new IllegalArgumentException("no points");
+        }
+        Set<Long> seen = new HashSet<>();
+        for (long x : xs) {
+            if (!seen.add(x)) {
+                throw new IllegalArgumentException("duplicate point: " + x);
+            }
+        }
+    }
+
+    // null if two points are congruent mod p
+    private static long[] interpolateReduced(long[] xs, long[] ys, Modular field) {
+        long[] x = new long[xs.length];
+        long[] y = new long[ys.length];
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < xs.length; i++) {
+            x[i] = field.reduce(xs[i]);
+            y[i] = field.reduce(ys[i]);
+            if (!seen.add(x[i])) {
+                return null;
+            }
+        }
+        if (x.length <= NEWTON_THRESHOLD) {
+            return newton(x, y, field);
+        }
+        return subproductTree(x, y, field);
+    }
+
+    /**
+     * Exact divided differences. Over the integers, every divided difference of a polynomial
+     * with integer coefficients is an integer, so an inexact division means there is no such polynomial.
+     */
+    private static int[] newton(long[] xs, long[] ys) {
+        int n = xs.length;
+        BigInteger[] c = new BigInteger[n];
+        for (int i = 0; i < n; i++) {
+            c[i] = BigInteger.valueOf(ys[i]);
+        }
+        for (int j = 1; j < n; j++) {
+            for (int i = n - 1; i >= j; i--) {
+                BigInteger[] qr = c[i].subtract(c[i - 1]).divideAndRemainder(
+                        BigInteger.valueOf(xs[i]).subtract(BigInteger.valueOf(xs[i - j])));
+                if (qr[1].signum() != 0) {
+                    throw new ArithmeticException("interpolating polynomial does not have integer coefficients");
+                }
+                c[i] = qr[0];
+            }
+        }
+        // Horner on the Newton form: f = c[n-1], then f = f * (x - xs[k]) + c[k]
+        BigInteger[] f = new BigInteger[n];
+        f[0] = c[n - 1];
+        for (int k = n - 2, degree = 0; k >= 0; k--, degree++) {
+            BigInteger xk = BigInteger.valueOf(xs[k]);
+            f[degree + 1] = f[degree];
+            for (int i = degree; i > 0; i--) {
+                f[i] = f[i - 1].subtract(f[i].multiply(xk));
+            }
+            f[0] = c[k].subtract(f[0].multiply(xk));
+        }
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = f[i].intValueExact();
+        }
+        return result;
+    }
+
+    private static long[] newton(long[] xs, long[] ys, Modular field) {
+        int n = xs.length;
+        long[] c = ys.clone();
+        for (int j = 1; j < n; j++) {
+            for (int i = n - 1; i >= j; i--) {
+                long d = field.inverse(field.subtract(xs[i], xs[i - j]));
+                c[i] = field.multiply(field.subtract(c[i], c[i - 1]), d);
+            }
+        }
+        long[] f = new long[n];
+        f[0] = c[n - 1];
+        for (int k = n - 2, degree = 0; k >= 0; k--, degree++) {
+            long xk = xs[k];
+            f[degree + 1] = f[degree];
+            for (int i = degree; i > 0; i--) {
+                f[i] = field.subtract(f[i - 1], field.multiply(f[i], xk));
+            }
+            f[0] = field.subtract(c[k], field.multiply(f[0], xk));
+        }
+        return f;
+    }
+
+    /**
+     * With {@code m = (x - x_0)...(x - x_{n-1})}, the interpolating polynomial is
+     * {@code sum y_i / m'(x_i) * m / (x - x_i)}.
+     * The values {@code m'(x_i)} are found by reducing {@code m'} down the tree of subproducts,
+     * and the sum is built up the same tree.
+     */
+    private static long[] subproductTree(long[] xs, long[] ys, Modular field) {
+        List<long[][]> tree = new ArrayList<>();
+        long[][] level = new long[xs.length][];
+        for (int i = 0; i < xs.length; i++) {
+            level[i] = new long[]{field.subtract(0, xs[i]), 1};
+        }
+        tree.add(level);
+        while (level.length > 1) {
+            long[][] next = new long[(level.length + 1) / 2][];
+            for (int j = 0; j < next.length; j++) {
+                next[j] = 2 * j + 1 < level.length ? field.multiply(level[2 * j], level[2 * j + 1]) : level[2 * j];
+            }
+            tree.add(next);
+            level = next;
+        }
+        // remainders of m' going down
+        long[][] remainders = {field.derivative(level[0])};
+        for (int k = tree.size() - 2; k >= 0; k--) {
+            long[][] nodes = tree.get(k);
+            long[][] next = new long[nodes.length][];
+            for (int j = 0; j < nodes.length; j++) {
+                next[j] = field.remainder(remainders[j / 2], nodes[j]);
+            }
+            remainders = next;
+        }
+        // weighted sums going up
+        long[][] sums = new long[xs.length][];
+        for (int i = 0; i < xs.length; i++) {
+            sums[i] = new long[]{field.multiply(ys[i], field.inverse(remainders[i][0]))};
+        }
+        for (int k = 0; k < tree.size() - 1; k++) {
+            long[][] nodes = tree.get(k);
+            long[][] next = new long[(nodes.length + 1) / 2][];
+            for (int j = 0; j < next.length; j++) {
+                int left = 2 * j;
+                int right = 2 * j + 1;
+                next[j] = right < nodes.length ?
+                        field.add(field.multiply(sums[left], nodes[right]), field.multiply(sums[right], nodes[left])) :
+                        sums[left];
+            }
+            sums = next;
+        }
+        return sums[0];
+    }
+
+    private Interpolation() {
+    }
+}
@@ -0,0 +1,148 @@
+package io.polypen;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Coefficient-wise loops over {@code int[]} ranges, vectorized with the incubating Vector API.
+ * The module is an optional dependency; unless it is added with {@code --add-modules jdk.incubator.vector},
+ * the scalar loops are used instead.
+ * Like all coefficient arithmetic, overflow wraps around.
+ */
+final class Kernels {
+
+    static final boolean VECTORIZED = vectorized();
+
+    /**
+     * Sets {@code dst = a + b}. Ranges may be identical, but must not overlap otherwise.
+     */
+    static void add(int[] a, int aOffset, int[] b, int bOffset, int[] dst, int dstOffset, int length) {
+        if (VECTORIZED) {
+            Simd.add(a, aOffset, b, bOffset, dst, dstOffset, length);
+        } else {
+            Scalar.add(a, aOffset, b, bOffset, dst, dstOffset, length);
+        }
+    }
+
+    /**
+     * Sets {@code dst = a - b}.
+     */
+    static void subtract(int[] a, int aOffset, int[] b, int bOffset, int[] dst, int dstOffset, int length) {
+        if (VECTORIZED) {
+            Simd.subtract(a, aOffset, b, bOffset, dst, dstOffset, length);
+        } else {
+            Scalar.subtract(a, aOffset, b, bOffset, dst, dstOffset, length);
+        }
+    }
+
+    /**
+     * Sets {@code dst = factor * a}.
+     */
+    static void scale(int[] a, int aOffset, int factor, int[] dst, int dstOffset, int length) {
+        if (VECTORIZED) {
+            Simd.scale(a, aOffset, factor, dst, dstOffset, length);
+        } else {
+            Scalar.scale(a, aOffset, factor, dst, dstOffset, length);
+        }
+    }
+
+    /**
+     * Adds {@code factor * a} to {@code dst}. This is the inner loop of the schoolbook product.
+     */
+    static void addScaled(int[] a, int aOffset, int factor, int[] dst, int dstOffset, int length) {
+        if (VECTORIZED) {
+            Simd.addScaled(a, aOffset, factor, dst, dstOffset, length);
+        } else {
+            Scalar.addScaled(a, aOffset, factor, dst, dstOffset, length);
+        }
+    }
+
+    private static boolean vectorized() {
+        try {
+            return Simd.SPECIES.length() > 1;
+        } catch (LinkageError e) {
+            // jdk.incubator.vector is not in the module graph
+            return false;
+        }
+    }
+
+    static final class Scalar {
+
+        static void add(int[] a, int aOffset, int[] b, int bOffset, int[] dst, int dstOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                dst[dstOffset + i] = a[aOffset + i] + b[bOffset + i];
+            }
+        }
+
+        static void subtract(int[] a, int aOffset, int[] b, int bOffset, int[] dst, int dstOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                dst[dstOffset + i] = a[aOffset + i] - b[bOffset + i];
+            }
+        }
+
+        static void scale(int[] a, int aOffset, int factor, int[] dst, int dstOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                dst[dstOffset + i] = factor * a[aOffset + i];
+            }
+        }
+
+        static void addScaled(int[] a, int aOffset, int factor, int[] dst, int dstOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                dst[dstOffset + i] += factor * a[aOffset + i];
+            }
+        }
+
+        private Scalar() {
+        }
+    }
+
+    // full vectors first, then the tail with the scalar loop
+    static final class Simd {
+
+        static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+        static void add(int[] a, int aOffset, int[] b, int bOffset, int[] dst, int dstOffset, int length) {
+            int i = 0;
+            for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+                IntVector x = IntVector.fromArray(SPECIES, a, aOffset + i);
+                IntVector y = IntVector.fromArray(SPECIES, b, bOffset + i);
+                x.add(y).intoArray(dst, dstOffset + i);
+            }
+            Scalar.add(a, aOffset + i, b, bOffset + i, dst, dstOffset + i, length - i);
+        }
+
+        static void subtract(int[] a, int aOffset, int[] b, int bOffset, int[] dst, int dstOffset, int length) {
+            int i = 0;
+            for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+                IntVector x = IntVector.fromArray(SPECIES, a, aOffset + i);
+                IntVector y = IntVector.fromArray(SPECIES, b, bOffset + i);
+                x.sub(y).intoArray(dst, dstOffset + i);
+            }
+            Scalar.subtract(a, aOffset + i, b, bOffset + i, dst, dstOffset + i, length - i);
+        }
+
+        static void scale(int[] a, int aOffset, int factor, int[] dst, int dstOffset, int length) {
+            int i = 0;
+            for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+                IntVector.fromArray(SPECIES, a, aOffset + i).mul(factor).intoArray(dst, dstOffset + i);
+            }
+            Scalar.scale(a, aOffset + i, factor, dst, dstOffset + i, length - i);
+        }
+
+        static void addScaled(int[] a, int aOffset, int factor, int[] dst, int dstOffset, int length) {
+            int i = 0;
+            for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+                IntVector x = IntVector.fromArray(SPECIES, a, aOffset + i);
+                IntVector y = IntVector.fromArray(SPECIES, dst, dstOffset + i);
+                x.mul(factor).add(y).intoArray(dst, dstOffset + i);
+            }
+            Scalar.addScaled(a, aOffset + i, factor, dst, dstOffset + i, length - i);
+        }
+
+        private Simd() {
+        }
+    }
+
+    private Kernels() {
+    }
+}
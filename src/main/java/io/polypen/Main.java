@@ -1,20 +1,85 @@
 package io.polypen;
 
+import io.polypen.bench.Benchmark;
+import io.polypen.bench.Workload;
+import io.polypen.daemon.Client;
+import io.polypen.daemon.Daemon;
 import io.polypen.parse.Parser;
 import io.polypen.parse.Parser.ListToken;
 
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 public class Main {
 
-    public static void main(String[] args) {
+    private static final String USAGE = """
+            usage: poly
+                   poly serve|client [SOCKET_PATH|PORT]
+                   poly bench [csv|json] [SIZES]""";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            ListToken expression = Parser.parse(readStdin());
+            System.out.println(Parser.eval(expression));
+            return;
+        }
+        switch (args[0]) {
+            case "serve" -> {
+                try (Daemon daemon = Daemon.bind(address(args))) {
+                    System.err.println("listening on " + daemon.localAddress());
+                    daemon.serve();
+                }
+            }
+            case "client" -> {
+                try (Client client = Client.connect(address(args))) {
+                    System.out.println(client.eval(readStdin()));
+                }
+            }
+            case "bench" -> {
+                Benchmark.Format format;
+                int[] sizes;
+                try {
+                    format = args.length >= 2 ?
+                            Benchmark.Format.valueOf(args[1].toUpperCase(Locale.ROOT)) :
+                            Benchmark.Format.CSV;
+                    sizes = args.length >= 3 ?
+                            Arrays.stream(args[2].split(",")).mapToInt(Integer::parseInt).toArray() :
+                            new int[]{10, 100, 1000};
+                } catch (IllegalArgumentException e) {
+                    // also NumberFormatException
+                    usage();
+                    return;
+                }
+                if (Arrays.stream(sizes).anyMatch(size -> size < 1)) {
+                    usage();
+                    return;
+                }
+                Benchmark.run(List.of(Workload.values()), sizes, format, System.out);
+            }
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println(USAGE);
+        System.exit(1);
+    }
+
+    private static SocketAddress address(String[] args) {
+        return Daemon.address(args.length >= 2 ? args[1] : Daemon.DEFAULT_SOCKET.toString());
+    }
+
+    private static String readStdin() {
         Scanner in = new Scanner(System.in);
         StringBuilder sb = new StringBuilder();
         while (in.hasNextLine()) {
             String line = in.nextLine();
             sb.append(line);
         }
-        ListToken expression = Parser.parse(sb.toString());
-        System.out.println(Parser.eval(expression));
+        return sb.toString();
     }
 }
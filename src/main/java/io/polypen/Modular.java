@@ -0,0 +1,198 @@
+package io.polypen;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Polynomials over {@code Z/p} for a prime {@code p < 2^31}, as {@code long[]} coefficient arrays
+ * with entries in {@code [0, p)}. Products of two entries fit in a {@code long}.
+ */
+final class Modular {
+
+    static final int SCHOOLBOOK_THRESHOLD = 64;
+
+    // coefficients are split into 16 bit halves for the exact Kronecker products
+    private static final int SPLIT = 16;
+
+    private final long p;
+    // 2^16 and 2^32 mod p
+    private final long r16;
+    private final long r32;
+
+    Modular(long p) {
+        if (p < 2 || p > Integer.MAX_VALUE || !BigInteger.valueOf(p).isProbablePrime(40)) {
+            throw new IllegalArgumentException("not a prime below 2^31: " + p);
+        }
+        this.p = p;
+        this.r16 = (1L << SPLIT) % p;
+        this.r32 = r16 * r16 % p;
+    }
+
+    long reduce(long a) {
+        return Math.floorMod(a, p);
+    }
+
+    long multiply(long a, long b) {
+        return a * b % p;
+    }
+
+    long subtract(long a, long b) {
+        long r = a - b;
+        return r < 0 ? r + p : r;
+    }
+
+    long pow(long a, long e) {
+        long result = 1;
+        for (long base = a; e != 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                result = result * base % p;
+            }
+            base = base * base % p;
+        }
+        return result;
+    }
+
+    /**
+     * @throws ArithmeticException if {@code a} is zero
+     */
+    long inverse(long a) {
+        if (a == 0) {
+            throw new ArithmeticException("division by zero mod " + p);
+        }
+        return pow(a, p - 2);
+    }
+
+    long[] add(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            long r = result[i] + b[i];
+            result[i] = r >= p ? r - p : r;
+        }
+        return result;
+    }
+
+    /**
+     * Schoolbook for short operands, otherwise three exact Kronecker products of the 16 bit halves,
+     * combined Karatsuba style.
+     */
+    long[] multiply(long[] a, long[] b) {
+        if (Math.min(a.length, b.length) < SCHOOLBOOK_THRESHOLD) {
+            return schoolbook(a, b);
+        }
+        long[] a0 = new long[a.length];
+        long[] a1 = new long[a.length];
+        long[] as = new long[a.length];
+        long[] b0 = new long[b.length];
+        long[] b1 = new long[b.length];
+        long[] bs = new long[b.length];
+        split(a, a0, a1, as);
+        split(b, b0, b1, bs);
+        long[] z0 = Multiplication.kronecker(a0, b0, SPLIT);
+        long[] z2 = Multiplication.kronecker(a1, b1, SPLIT);
+        long[] z1 = Multiplication.kronecker(as, bs, SPLIT + 1);
+        long[] result = new long[z0.length];
+        for (int k = 0; k < result.length; k++) {
+            long mid = (z1[k] - z0[k] - z2[k]) % p;
+            result[k] = ((z2[k] % p) * r32 % p + mid * r16 + z0[k]) % p;
+        }
+        return result;
+    }
+
+    private static void split(long[] a, long[] low, long[] high, long[] sum) {
+        for (int i = 0; i < a.length; i++) {
+            low[i] = a[i] & 0xffff;
+            high[i] = a[i] >>> SPLIT;
+            sum[i] = low[i] + high[i];
+        }
+    }
+
+    private long[] schoolbook(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            long ai = a[i];
+            if (ai == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                result[i + j] = (result[i + j] + ai * b[j]) % p;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Power series inverse mod {@code x^n}, by Newton iteration.
+     * The constant coefficient must not be zero.
+     */
+    long[] inverseTruncated(long[] a, int n) {
+        long[] g = {inverse(a[0])};
+        for (int m = 1; m < n; ) {
+            m = Math.min(2 * m, n);
+            // g = g * (2 - a * g)
+            long[] e = truncate(multiply(truncate(a, m), g), m);
+            for (int i = 0; i < e.length; i++) {
+                e[i] = e[i] == 0 ? 0 : p - e[i];
+            }
+            e[0] = (e[0] + 2) % p;
+            g = truncate(multiply(g, e), m);
+        }
+        return g;
+    }
+
+    /**
+     * Returns {@code a mod b} for a monic {@code b}.
+     * Long operands divide via the power series inverse of the reversed divisor.
+     */
+    long[] remainder(long[] a, long[] b) {
+        int d = b.length - 1;
+        if (a.length <= d) {
+            return a;
+        }
+        int qLength = a.length - d;
+        if (Math.min(d, qLength) < SCHOOLBOOK_THRESHOLD) {
+            return longDivision(a, b);
+        }
+        long[] q = truncate(multiply(truncate(reverse(a), qLength), inverseTruncated(reverse(b), qLength)), qLength);
+        long[] qb = multiply(reverse(q), b);
+        long[] r = new long[d];
+        for (int i = 0; i < d; i++) {
+            r[i] = subtract(a[i], qb[i]);
+        }
+        return r;
+    }
+
+    private long[] longDivision(long[] a, long[] b) {
+        int d = b.length - 1;
+        long[] r = a.clone();
+        for (int i = r.length - 1; i >= d; i--) {
+            long c = r[i];
+            if (c == 0) {
+                continue;
+            }
+            for (int j = 0; j < d; j++) {
+                r[i - d + j] = subtract(r[i - d + j], c * b[j] % p);
+            }
+        }
+        return Arrays.copyOf(r, d);
+    }
+
+    long[] derivative(long[] a) {
+        long[] result = new long[Math.max(1, a.length - 1)];
+        for (int i = 1; i < a.length; i++) {
+            result[i - 1] = a[i] * i % p;
+        }
+        return result;
+    }
+
+    private static long[] truncate(long[] a, int n) {
+        return a.length <= n ? a : Arrays.copyOf(a, n);
+    }
+
+    private static long[] reverse(long[] a) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[a.length - 1 - i];
+        }
+        return result;
+    }
+}
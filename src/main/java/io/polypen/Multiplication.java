@@ -0,0 +1,289 @@
+package io.polypen;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+final class Multiplication {
+
+    // with the vectorized base case, schoolbook wins up to about this size
+    static final int KARATSUBA_THRESHOLD = 96;
+    // below this, packing overhead and BigInteger's own Karatsuba lose against ours
+    static final int KRONECKER_THRESHOLD = 8192;
+
+    // packed fields are read back as longs
+    private static final int MAX_KRONECKER_WIDTH = 62;
+    private static final int PARALLEL_MULTIPLY_BITS = 1 << 18;
+
+    static int[] multiply(int[] a, int aLength, int[] b, int bLength) {
+        if (aLength == 0 || bLength == 0) {
+            return new int[0];
+        }
+        int[] result = new int[aLength + bLength - 1];
+        mulAdd(a, 0, aLength, b, 0, bLength, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * Adds the product of {@code a[aOffset..aOffset+aLength)} and {@code b[bOffset..bOffset+bLength)}
+     * to {@code dst}, starting at {@code dstOffset}.
+     * Coefficients of degree {@code limit} and above are not computed.
+     */
+    static void mulAdd(
+            int[] a, int aOffset, int aLength,
+            int[] b, int bOffset, int bLength,
+            int[] dst, int dstOffset, int limit) {
+        aLength = Math.min(aLength, limit);
+        bLength = Math.min(bLength, limit);
+        if (aLength <= 0 || bLength <= 0) {
+            return;
+        }
+        if (Math.min(aLength, bLength) < KARATSUBA_THRESHOLD) {
+            schoolbook(a, aOffset, aLength, b, bOffset, bLength, dst, dstOffset, limit);
+        } else if (limit < aLength + bLength - 1) {
+            shortProduct(a, aOffset, aLength, b, bOffset, bLength, dst, dstOffset, limit);
+        } else if (Math.min(aLength, bLength) < KRONECKER_THRESHOLD
+                || !kronecker(a, aOffset, aLength, b, bOffset, bLength, dst, dstOffset)) {
+            karatsuba(a, aOffset, aLength, b, bOffset, bLength, dst, dstOffset);
+        }
+    }
+
+    static void schoolbook(
+            int[] a, int aOffset, int aLength,
+            int[] b, int bOffset, int bLength,
+            int[] dst, int dstOffset, int limit) {
+        for (int i = 0; i < aLength; i++) {
+            int ai = a[aOffset + i];
+            if (ai == 0) {
+                continue;
+            }
+            Kernels.addScaled(b, bOffset, ai, dst, dstOffset + i, Math.min(bLength, limit - i));
+        }
+    }
+
+    private static void karatsuba(
+            int[] a, int aOffset, int aLength,
+            int[] b, int bOffset, int bLength,
+            int[] dst, int dstOffset) {
+        if (aLength < bLength) {
+            karatsuba(b, bOffset, bLength, a, aOffset, aLength, dst, dstOffset);
+            return;
+        }
+        if (2 * bLength <= aLength) {
+            // unbalanced: split the longer operand into chunks of the shorter one's length
+            for (int i = 0; i < aLength; i += bLength) {
+                int chunk = Math.min(bLength, aLength - i);
+                mulAdd(a, aOffset + i, chunk, b, bOffset, bLength, dst, dstOffset + i, chunk + bLength - 1);
+            }
+            return;
+        }
+        int m = (aLength + 1) / 2;
+        int a1Length = aLength - m;
+        int b1Length = bLength - m;
+        int[] z0 = multiply(a, aOffset, m, b, bOffset, m);
+        int[] z2 = multiply(a, aOffset + m, a1Length, b, bOffset + m, b1Length);
+        int[] sa = new int[m];
+        int[] sb = new int[m];
+        for (int i = 0; i < m; i++) {
+            sa[i] = a[aOffset + i] + (i < a1Length ? a[aOffset + m + i] : 0);
+            sb[i] = b[bOffset + i] + (i < b1Length ? b[bOffset + m + i] : 0);
+        }
+        int[] z1 = multiply(sa, 0, m, sb, 0, m);
+        Kernels.subtract(z1, 0, z0, 0, z1, 0, z0.length);
+        Kernels.add(dst, dstOffset, z0, 0, dst, dstOffset, z0.length);
+        Kernels.subtract(z1, 0, z2, 0, z1, 0, z2.length);
+        Kernels.add(dst, dstOffset + 2 * m, z2, 0, dst, dstOffset + 2 * m, z2.length);
+        // the top coefficients of z1 cancel out when b1 is shorter than a1
+        int z1Length = Math.min(z1.length, aLength + bLength - 1 - m);
+        Kernels.add(dst, dstOffset + m, z1, 0, dst, dstOffset + m, z1Length);
+    }
+
+    /**
+     * Kronecker substitution: evaluates both operands at {@code 2^w}, multiplies the resulting
+     * integers with {@link BigInteger}, and reads the product coefficients back as signed {@code w}-bit digits.
+     * The width {@code w} is chosen so that every product coefficient fits.
+     *
+     * @return {@code false} if the coefficients are too large for this method
+     */
+    static boolean kronecker(
+            int[] a, int aOffset, int aLength,
+            int[] b, int bOffset, int bLength,
+            int[] dst, int dstOffset) {
+        long maxA = maxAbs(a, aOffset, aLength);
+        long maxB = maxAbs(b, bOffset, bLength);
+        if (maxA == 0 || maxB == 0) {
+            return true;
+        }
+        // |c_k| <= min(aLength, bLength) * maxA * maxB < 2^(w - 1)
+        int width = bitLength(maxA) + bitLength(maxB) + bitLength(Math.min(aLength, bLength)) + 1;
+        if (width > MAX_KRONECKER_WIDTH) {
+            return false;
+        }
+        BigInteger x = pack(a, aOffset, aLength, width);
+        BigInteger y = pack(b, bOffset, bLength, width);
+        BigInteger product = x.bitLength() + y.bitLength() >= PARALLEL_MULTIPLY_BITS ?
+                x.parallelMultiply(y) :
+                x.multiply(y);
+        int length = aLength + bLength - 1;
+        long[] words = toWords(product, (int) (((long) length * width + 63) >>> 6));
+        long mask = (1L << width) - 1;
+        long half = 1L << (width - 1);
+        long carry = 0;
+        for (int k = 0; k < length; k++) {
+            long digit = field(words, (long) k * width, width, mask) + carry;
+            if (digit >= half) {
+                digit -= 1L << width;
+                carry = 1;
+            } else {
+                carry = 0;
+            }
+            dst[dstOffset + k] += (int) digit;
+        }
+        return true;
+    }
+
+    /**
+     * Exact product of polynomials with non-negative coefficients below {@code 2^bits},
+     * by Kronecker substitution.
+     * Each product coefficient must fit in {@link #MAX_KRONECKER_WIDTH} bits.
+     */
+    static long[] kronecker(long[] a, long[] b, int bits) {
+        int width = 2 * bits + bitLength(Math.min(a.length, b.length));
+        if (width > MAX_KRONECKER_WIDTH) {
+            throw new IllegalArgumentException("coefficients too large: " + width + " bits");
+        }
+        BigInteger x = pack(a, width);
+        BigInteger y = pack(b, width);
+        BigInteger product = x.bitLength() + y.bitLength() >= PARALLEL_MULTIPLY_BITS ?
+                x.parallelMultiply(y) :
+                x.multiply(y);
+        long[] result = new long[a.length + b.length - 1];
+        long[] words = toWords(product, (int) (((long) result.length * width + 63) >>> 6));
+        long mask = (1L << width) - 1;
+        for (int k = 0; k < result.length; k++) {
+            result[k] = field(words, (long) k * width, width, mask);
+        }
+        return result;
+    }
+
+    private static BigInteger pack(long[] a, int width) {
+        long[] words = new long[(int) (((long) a.length * width + 63) >>> 6) + 1];
+        for (int i = 0; i < a.length; i++) {
+            setField(words, (long) i * width, a[i]);
+        }
+        return new BigInteger(toBytes(words));
+    }
+
+    // two's complement, negative coefficients borrow from the next field
+    private static BigInteger pack(int[] a, int offset, int length, int width) {
+        long[] words = new long[(int) (((long) length * width + 63) >>> 6) + 1];
+        long borrow = 0;
+        for (int i = 0; i < length; i++) {
+            long digit = a[offset + i] - borrow;
+            if (digit < 0) {
+                digit += 1L << width;
+                borrow = 1;
+            } else {
+                borrow = 0;
+            }
+            setField(words, (long) i * width, digit);
+        }
+        if (borrow != 0) {
+            long top = (long) length * width;
+            int word = (int) (top >>> 6);
+            words[word] |= -1L << (top & 63);
+            for (int i = word + 1; i < words.length; i++) {
+                words[i] = -1L;
+            }
+        }
+        return new BigInteger(toBytes(words));
+    }
+
+    private static void setField(long[] words, long bitIndex, long value) {
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        words[word] |= value << shift;
+        if (shift != 0 && word + 1 < words.length) {
+            words[word + 1] |= value >>> (64 - shift);
+        }
+    }
+
+    private static long field(long[] words, long bitIndex, int width, long mask) {
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        long value = words[word] >>> shift;
+        if (shift != 0 && shift + width > 64) {
+            value |= words[word + 1] << (64 - shift);
+        }
+        return value & mask;
+    }
+
+    // little endian words to big endian bytes
+    private static byte[] toBytes(long[] words) {
+        byte[] bytes = new byte[8 * words.length];
+        for (int i = 0; i < words.length; i++) {
+            long w = words[i];
+            int end = bytes.length - 8 * i;
+            for (int j = 1; j <= 8; j++) {
+                bytes[end - j] = (byte) w;
+                w >>>= 8;
+            }
+        }
+        return bytes;
+    }
+
+    // two's complement little endian words, sign extended to at least minWords + 1 words
+    private static long[] toWords(BigInteger n, int minWords) {
+        byte[] bytes = n.toByteArray();
+        long[] words = new long[Math.max(minWords, (bytes.length + 7) / 8) + 1];
+        if (n.signum() < 0) {
+            Arrays.fill(words, -1L);
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            long b = bytes[bytes.length - 1 - i] & 0xffL;
+            int shift = 8 * (i & 7);
+            words[i >>> 3] = (words[i >>> 3] & ~(0xffL << shift)) | (b << shift);
+        }
+        return words;
+    }
+
+    private static long maxAbs(int[] a, int offset, int length) {
+        long max = 0;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, Math.abs((long) a[offset + i]));
+        }
+        return max;
+    }
+
+    private static int bitLength(long n) {
+        return 64 - Long.numberOfLeadingZeros(n);
+    }
+
+    // low half of the product; a0 * b0 is computed in full, a1 * b1 is skipped
+    private static void shortProduct(
+            int[] a, int aOffset, int aLength,
+            int[] b, int bOffset, int bLength,
+            int[] dst, int dstOffset, int limit) {
+        int h = (limit + 1) / 2;
+        int a0Length = Math.min(h, aLength);
+        int b0Length = Math.min(h, bLength);
+        mulAdd(a, aOffset, a0Length, b, bOffset, b0Length, dst, dstOffset, limit);
+        if (aLength > h) {
+            mulAdd(a, aOffset + h, aLength - h, b, bOffset, b0Length, dst, dstOffset + h, limit - h);
+        }
+        if (bLength > h) {
+            mulAdd(a, aOffset, a0Length, b, bOffset + h, bLength - h, dst, dstOffset + h, limit - h);
+        }
+    }
+
+    private static int[] multiply(int[] a, int aOffset, int aLength, int[] b, int bOffset, int bLength) {
+        if (aLength == 0 || bLength == 0) {
+            return new int[0];
+        }
+        int[] result = new int[aLength + bLength - 1];
+        mulAdd(a, aOffset, aLength, b, bOffset, bLength, result, 0, result.length);
+        return result;
+    }
+
+    private Multiplication() {
+    }
+}
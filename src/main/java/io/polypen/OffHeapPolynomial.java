@@ -0,0 +1,249 @@
+package io.polypen;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Polynomial with its coefficients in a {@link MemorySegment}, outside of the Java heap.
+ * Coefficient {@code i} is the little endian {@code int} at byte offset {@code 4 * i}.
+ * The segment lives as long as the {@link Arena} it was allocated from, or mapped with.
+ * Unlike {@link Polynomial}, instances are mutable: they are the destination of the static kernels.
+ * Addition and scaling run directly on the segments.
+ * Multiplication is a fallback which stages blocks through the heap, see {@link #multiplyStaged}.
+ */
+public final class OffHeapPolynomial {
+
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    // multiplication stages blocks of this size on the heap
+    private static final int BLOCK = 1 << 14;
+
+    private final MemorySegment segment;
+    private final long length;
+
+    private OffHeapPolynomial(MemorySegment segment) {
+        if (segment.byteSize() % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("segment size is not a multiple of 4: " + segment.byteSize());
+        }
+        if (segment.byteSize() == 0) {
+            throw new IllegalArgumentException("empty segment");
+        }
+        this.segment = segment;
+        this.length = segment.byteSize() / Integer.BYTES;
+    }
+
+    /**
+     * Allocates {@code length} zero coefficients.
+     */
+    public static OffHeapPolynomial allocate(Arena arena, long length) {
+        return new OffHeapPolynomial(arena.allocate(INT, Math.max(1, length)));
+    }
+
+    public static OffHeapPolynomial of(Arena arena, Polynomial p) {
+        int[] coefficients = p.coefficients();
+        MemorySegment segment = arena.allocate(INT, coefficients.length);
+        MemorySegment.copy(coefficients, 0, segment, INT, 0, coefficients.length);
+        return new OffHeapPolynomial(segment);
+    }
+
+    /**
+     * Uses an existing segment, which must be 4-byte aligned.
+     */
+    public static OffHeapPolynomial wrap(MemorySegment segment) {
+        return new OffHeapPolynomial(segment);
+    }
+
+    /**
+     * Maps {@code length} coefficients of a file, which is created, grown or truncated to exactly that size,
+     * so that {@link #map(Path, Arena)} reads back no stale coefficients.
+     * Writes go directly to the file; the mapping is released when the arena is closed.
+     */
+    public static OffHeapPolynomial map(Path file, long length, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ, WRITE, CREATE)) {
+            long size = Math.max(1, length) * Integer.BYTES;
+            if (channel.size() > size) {
+                channel.truncate(size);
+            }
+            return new OffHeapPolynomial(channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena));
+        }
+    }
+
+    /**
+     * Maps an existing file, for example one that was written by {@link #map(Path, long, Arena)}.
+     * An empty file is grown to a single zero coefficient.
+     */
+    public static OffHeapPolynomial map(Path file, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ, WRITE)) {
+            long size = Math.max(Integer.BYTES, channel.size());
+            return new OffHeapPolynomial(channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena));
+        }
+    }
+
+    /**
+     * Sets {@code dst = a + b}. {@code dst} may be the same as {@code a} or {@code b}.
+     */
+    public static void add(OffHeapPolynomial a, OffHeapPolynomial b, OffHeapPolynomial dst) {
+        long n = Math.max(a.length, b.length);
+        dst.checkLength(n);
+        for (long i = 0; i < n; i++) {
+            dst.segment.setAtIndex(INT, i, a.coefficient(i) + b.coefficient(i));
+        }
+        dst.clear(n);
+    }
+
+    /**
+     * Sets {@code dst = a - b}. {@code dst} may be the same as {@code a} or {@code b}.
+     */
+    public static void subtract(OffHeapPolynomial a, OffHeapPolynomial b, OffHeapPolynomial dst) {
+        long n = Math.max(a.length, b.length);
+        dst.checkLength(n);
+        for (long i = 0; i < n; i++) {
+            dst.segment.setAtIndex(INT, i, a.coefficient(i) - b.coefficient(i));
+        }
+        dst.clear(n);
+    }
+
+    /**
+     * Sets {@code dst = factor * a}. {@code dst} may be the same as {@code a}.
+     */
+    public static void multiply(OffHeapPolynomial a, int factor, OffHeapPolynomial dst) {
+        dst.checkLength(a.length);
+        for (long i = 0; i < a.length; i++) {
+            dst.segment.setAtIndex(INT, i, factor * a.segment.getAtIndex(INT, i));
+        }
+        dst.clear(a.length);
+    }
+
+    /**
+     * Sets {@code dst = a * b}. {@code dst} must not overlap with {@code a} or {@code b}.
+     * This is not a segment kernel: every pair of blocks of {@code 2^14} coefficients is copied to the heap,
+     * multiplied there with the {@code int[]} kernels, and the partial product is added to {@code dst}.
+     * The fast algorithms only apply within a block, so the cost grows with the product of the block counts.
+     */
+    public static void multiplyStaged(OffHeapPolynomial a, OffHeapPolynomial b, OffHeapPolynomial dst) {
+        if (dst.segment.asOverlappingSlice(a.segment).isPresent() || dst.segment.asOverlappingSlice(b.segment).isPresent()) {
+            throw new IllegalArgumentException("dst overlaps with an operand");
+        }
+        long n = a.length + b.length - 1;
+        dst.checkLength(n);
+        dst.segment.fill((byte) 0);
+        int[] x = new int[(int) Math.min(BLOCK, a.length)];
+        int[] y = new int[(int) Math.min(BLOCK, b.length)];
+        int[] z = new int[x.length + y.length - 1];
+        for (long i = 0; i < a.length; i += BLOCK) {
+            int xLength = (int) Math.min(BLOCK, a.length - i);
+            MemorySegment.copy(a.segment, INT, i * Integer.BYTES, x, 0, xLength);
+            for (long j = 0; j < b.length; j += BLOCK) {
+                int yLength = (int) Math.min(BLOCK, b.length - j);
+                MemorySegment.copy(b.segment, INT, j * Integer.BYTES, y, 0, yLength);
+                int zLength = xLength + yLength - 1;
+                Arrays.fill(z, 0, zLength, 0);
+                Multiplication.mulAdd(x, 0, xLength, y, 0, yLength, z, 0, zLength);
+                for (int k = 0; k < zLength; k++) {
+                    long index = i + j + k;
+                    dst.segment.setAtIndex(INT, index, dst.segment.getAtIndex(INT, index) + z[k]);
+                }
+            }
+        }
+    }
+
+    public OffHeapPolynomial add(OffHeapPolynomial other, Arena arena) {
+        OffHeapPolynomial result = allocate(arena, Math.max(length, other.length));
+        add(this, other, result);
+        return result;
+    }
+
+    /**
+     * See {@link #multiplyStaged}.
+     */
+    public OffHeapPolynomial multiply(OffHeapPolynomial other, Arena arena) {
+        OffHeapPolynomial result = allocate(arena, length + other.length - 1);
+        multiplyStaged(this, other, result);
+        return result;
+    }
+
+    public OffHeapPolynomial multiply(int factor, Arena arena) {
+        OffHeapPolynomial result = allocate(arena, length);
+        multiply(this, factor, result);
+        return result;
+    }
+
+    public int coefficient(long i) {
+        if (i >= length) {
+            return 0;
+        }
+        return segment.getAtIndex(INT, i);
+    }
+
+    public void setCoefficient(long i, int value) {
+        segment.setAtIndex(INT, i, value);
+    }
+
+    /**
+     * Number of stored coefficients, including leading zeros.
+     */
+    public long length() {
+        return length;
+    }
+
+    public long degree() {
+        long i = length - 1;
+        while (i > 0 && segment.getAtIndex(INT, i) == 0) {
+            i--;
+        }
+        return i;
+    }
+
+    public MemorySegment segment() {
+        return segment;
+    }
+
+    /**
+     * Writes changes of a memory-mapped polynomial to its file.
+     */
+    public void force() {
+        if (segment.isMapped()) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Copies to the heap.
+     *
+     * @throws ArithmeticException if the degree is too large for an {@code int[]}
+     */
+    public Polynomial toPolynomial() {
+        int n = Math.toIntExact(degree() + 1);
+        int[] coefficients = new int[n];
+        MemorySegment.copy(segment, INT, 0, coefficients, 0, n);
+        return new Polynomial(coefficients);
+    }
+
+    @Override
+    public String toString() {
+        return degree() < 1000 ? toPolynomial().toString() : "OffHeapPolynomial[length=" + length + "]";
+    }
+
+    private void checkLength(long n) {
+        if (length < n) {
+            throw new IllegalArgumentException("destination too short: " + length + " < " + n);
+        }
+    }
+
+    // zero the coefficients above n
+    private void clear(long n) {
+        if (n < length) {
+            segment.asSlice(n * Integer.BYTES).fill((byte) 0);
+        }
+    }
+}
@@ -3,16 +3,17 @@ package io.polypen;
 import io.polypen.parse.Parser;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public final class Polynomial {
 
-    public static final Polynomial ZERO = new Polynomial(List.of(0));
-    public static final Polynomial ONE = new Polynomial(List.of(1));
+    public static final Polynomial ZERO = new Polynomial(new int[]{0});
+    public static final Polynomial ONE = new Polynomial(new int[]{1});
 
-    private final List<Integer> coefficients;
+    private final int[] coefficients;
 
-    Polynomial(List<Integer> coefficients) {
+    Polynomial(int[] coefficients) {
         this.coefficients = coefficients;
     }
 
@@ -20,12 +21,32 @@ public final class Polynomial {
         return Parser.eval(Parser.parse(s));
     }
 
+    /**
+     * Returns the polynomial of degree less than {@code xs.length} with {@code p(xs[i]) = ys[i]}.
+     *
+     * @throws IllegalArgumentException if the points are not distinct
+     * @throws ArithmeticException if the interpolating polynomial does not have {@code int} coefficients
+     */
+    public static Polynomial interpolate(long[] xs, long[] ys) {
+        return new Polynomial(Interpolation.interpolate(xs, ys)).trim();
+    }
+
+    /**
+     * Interpolates modulo the prime {@code modulus}.
+     * The coefficients of the result are in {@code [0, modulus)}.
+     *
+     * @throws IllegalArgumentException if {@code modulus} is not prime, or the points are not distinct
+     * @throws ArithmeticException if two points are congruent modulo {@code modulus}
+     */
+    public static Polynomial interpolate(long[] xs, long[] ys, int modulus) {
+        return new Polynomial(Interpolation.interpolate(xs, ys, modulus)).trim();
+    }
+
     public Polynomial add(Polynomial other) {
-        int degree = Math.max(degree(), other.degree());
-        List<Integer> r = new ArrayList<>(degree + 1);
-        for (int i = 0; i <= degree; i++) {
-            r.add(coefficient(i) + other.coefficient(i));
-        }
+        int[] longer = coefficients.length >= other.coefficients.length ? coefficients : other.coefficients;
+        int[] shorter = longer == coefficients ? other.coefficients : coefficients;
+        int[] r = longer.clone();
+        Kernels.add(r, 0, shorter, 0, r, 0, shorter.length);
         return new Polynomial(r);
     }
 
@@ -34,20 +55,107 @@ public final class Polynomial {
     }
 
     public Polynomial multiply(Polynomial other) {
-        Polynomial result = ZERO;
-        for (int i = 0; i <= degree(); i++) {
-            Monomial m = monomial(i);
-            Polynomial p = m.multiply(other);
-            result = result.add(p);
+        PolynomialAccumulator result = new PolynomialAccumulator(degree() + other.degree() + 1);
+        result.addProduct(this, other);
+        return result.toPolynomial();
+    }
+
+    /**
+     * Returns {@code this * other mod x^n}.
+     * Coefficients of degree {@code n} and above are never computed.
+     */
+    public Polynomial multiplyTruncated(Polynomial other, int n) {
+        PolynomialAccumulator result = PolynomialAccumulator.truncated(n);
+        result.addProduct(this, other);
+        return result.toPolynomial();
+    }
+
+    /**
+     * Returns {@code this^exponent mod x^n}.
+     */
+    public Polynomial powTruncated(int exponent, int n) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("negative exponent: " + exponent);
         }
-        return result;
+        PolynomialAccumulator result = PolynomialAccumulator.truncated(n);
+        result.addTerm(1, 0);
+        Polynomial base = truncate(n);
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result.multiply(base);
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                base = base.multiplyTruncated(base, n);
+            }
+        }
+        return result.toPolynomial();
     }
 
-    public Polynomial multiply(int factor) {
-        List<Integer> newCoefficients = new ArrayList<>(coefficients.size());
-        for (Integer coefficient : coefficients) {
-            newCoefficients.add(coefficient * factor);
+    /**
+     * Returns the power series inverse {@code g} with {@code this * g = 1 mod x^n}, using Newton iteration.
+     *
+     * @throws ArithmeticException if the constant coefficient is not {@code 1} or {@code -1}
+     */
+    public Polynomial inverseTruncated(int n) {
+        int c0 = coefficients[0];
+        if (c0 != 1 && c0 != -1) {
+            throw new ArithmeticException("constant coefficient is not a unit: " + c0);
+        }
+        if (n == 0) {
+            return ZERO;
+        }
+        Polynomial g = new Polynomial(new int[]{c0});
+        for (int m = Math.min(2, n); ; m = Math.min(2 * m, n)) {
+            // g = g - g * (this * g - 1)
+            PolynomialAccumulator e = PolynomialAccumulator.truncated(m);
+            e.addProduct(truncate(m), g);
+            e.addTerm(-1, 0);
+            PolynomialAccumulator next = PolynomialAccumulator.truncated(m);
+            next.add(e);
+            next.multiply(g);
+            next.multiplyTerm(-1, 0);
+            next.add(g);
+            g = next.toPolynomial();
+            if (m >= n) {
+                return g.truncate(n);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code this(q(x))}.
+     */
+    public Polynomial compose(Polynomial q) {
+        return new Polynomial(Composition.compose(coefficients, q.coefficients)).trim();
+    }
+
+    /**
+     * Returns {@code this(x + a)}.
+     */
+    public Polynomial taylorShift(int a) {
+        return new Polynomial(Composition.taylorShift(coefficients, a)).trim();
+    }
+
+    /**
+     * Returns {@code this mod x^n}.
+     */
+    public Polynomial truncate(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative truncation: " + n);
         }
+        if (n >= coefficients.length) {
+            return this;
+        }
+        if (n == 0) {
+            return ZERO;
+        }
+        return new Polynomial(Arrays.copyOf(coefficients, n));
+    }
+
+    public Polynomial multiply(int factor) {
+        int[] newCoefficients = new int[coefficients.length];
+        Kernels.scale(coefficients, 0, factor, newCoefficients, 0, coefficients.length);
         return new Polynomial(newCoefficients);
     }
 
@@ -57,14 +165,14 @@ public final class Polynomial {
 
     @Override
     public String toString() {
-        List<String> result = new ArrayList<>(coefficients.size());
+        List<String> result = new ArrayList<>(coefficients.length);
         boolean firstCoefficient = true;
-        for (int i = coefficients.size() - 1; i >= 0; i--) {
-            Integer coefficient = coefficients.get(i);
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            int coefficient = coefficients[i];
             if (coefficient == 0) {
                 continue;
             }
-            String plus = i == coefficients.size() - 1 && coefficient > 0 ?
+            String plus = i == coefficients.length - 1 && coefficient > 0 ?
                     "" :
                     firstCoefficient ? "" : "+ ";
             firstCoefficient = false;
@@ -88,19 +196,19 @@ public final class Polynomial {
         if (this == o) return true;
         if (o == null) return false;
         if (!(o instanceof Polynomial p)) return false;
-        int size = Math.min(coefficients.size(), p.coefficients.size());
+        int size = Math.min(coefficients.length, p.coefficients.length);
         for (int i = 0; i < size; i++) {
-            if (!coefficients.get(i).equals(p.coefficients.get(i))) {
+            if (coefficients[i] != p.coefficients[i]) {
                 return false;
             }
         }
-        for (int i = size; i < coefficients.size(); i++) {
-            if (coefficients.get(i) != 0) {
+        for (int i = size; i < coefficients.length; i++) {
+            if (coefficients[i] != 0) {
                 return false;
             }
         }
-        for (int i = size; i < p.coefficients.size(); i++) {
-            if (p.coefficients.get(i) != 0) {
+        for (int i = size; i < p.coefficients.length; i++) {
+            if (p.coefficients[i] != 0) {
                 return false;
             }
         }
@@ -109,24 +217,48 @@ public final class Polynomial {
 
     @Override
     public int hashCode() {
-        return coefficients.hashCode();
+        int length = coefficients.length;
+        while (length > 0 && coefficients[length - 1] == 0) {
+            length--;
+        }
+        int result = 1;
+        for (int i = 0; i < length; i++) {
+            result = 31 * result + coefficients[i];
+        }
+        return result;
     }
 
-    public Integer coefficient(int i) {
-        if (i >= coefficients.size()) {
+    private Polynomial trim() {
+        int length = coefficients.length;
+        while (length > 1 && coefficients[length - 1] == 0) {
+            length--;
+        }
+        if (length == coefficients.length) {
+            return this;
+        }
+        return new Polynomial(Arrays.copyOf(coefficients, length));
+    }
+
+    public int coefficient(int i) {
+        if (i >= coefficients.length) {
             return 0;
         }
-        return coefficients.get(i);
+        return coefficients[i];
     }
 
     public Monomial monomial(int i) {
-        if (i >= coefficients.size()) {
+        if (i >= coefficients.length) {
             return Monomial.ZERO;
         }
-        return new Monomial(coefficients.get(i), i);
+        return new Monomial(coefficients[i], i);
     }
 
     public int degree() {
-        return coefficients.size() - 1;
+        return coefficients.length - 1;
+    }
+
+    // not copied, must not be modified
+    int[] coefficients() {
+        return coefficients;
     }
 }
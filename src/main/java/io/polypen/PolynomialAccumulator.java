@@ -0,0 +1,188 @@
+package io.polypen;
+
+import java.util.Arrays;
+
+/**
+ * Mutable polynomial with growable {@code int} storage.
+ * Sums and products are computed in place, so that a chain of additions
+ * does not allocate an intermediate {@link Polynomial} per step.
+ * A truncated accumulator, see {@link #truncated(int)}, computes modulo {@code x^n}:
+ * all coefficients of degree {@code n} and above are dropped as soon as they appear.
+ * Instances are not thread-safe.
+ */
+public final class PolynomialAccumulator {
+
+    private int[] coefficients;
+    // always zero, swapped with coefficients by multiply
+    private int[] scratch;
+    private int size;
+    private final int limit;
+
+    public PolynomialAccumulator() {
+        this(16);
+    }
+
+    public PolynomialAccumulator(int capacity) {
+        this(capacity, Integer.MAX_VALUE);
+    }
+
+    private PolynomialAccumulator(int capacity, int limit) {
+        this.coefficients = new int[Math.max(1, Math.min(capacity, limit))];
+        this.scratch = new int[0];
+        this.limit = limit;
+    }
+
+    /**
+     * Creates an accumulator that computes modulo {@code x^n}.
+     */
+    public static PolynomialAccumulator truncated(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative truncation: " + n);
+        }
+        return new PolynomialAccumulator(16, n);
+    }
+
+    public void add(Polynomial p) {
+        addScaled(p, 1, 0);
+    }
+
+    public void add(PolynomialAccumulator other) {
+        addScaled(other.coefficients, other.size, 1, 0);
+    }
+
+    /**
+     * Adds {@code factor * x^shift * p}.
+     */
+    public void addScaled(Polynomial p, int factor, int shift) {
+        int[] c = p.coefficients();
+        addScaled(c, c.length, factor, shift);
+    }
+
+    public void addTerm(int coefficient, int degree) {
+        if (degree >= limit) {
+            return;
+        }
+        ensureSize(degree + 1);
+        coefficients[degree] += coefficient;
+    }
+
+    /**
+     * Adds the product {@code a * b}.
+     */
+    public void addProduct(Polynomial a, Polynomial b) {
+        int[] ca = a.coefficients();
+        int[] cb = b.coefficients();
+        ensureSize(ca.length + cb.length - 1);
+        Multiplication.mulAdd(ca, 0, ca.length, cb, 0, cb.length, coefficients, 0, size);
+    }
+
+    public void multiply(Polynomial p) {
+        int[] c = p.coefficients();
+        multiply(c, c.length);
+    }
+
+    public void multiply(PolynomialAccumulator other) {
+        multiply(other.coefficients, other.size);
+    }
+
+    /**
+     * Multiplies by the monomial {@code coefficient * x^degree}.
+     */
+    public void multiplyTerm(int coefficient, int degree) {
+        if (size == 0) {
+            return;
+        }
+        if (degree >= limit) {
+            clear();
+            return;
+        }
+        ensureSize(size + degree);
+        System.arraycopy(coefficients, 0, coefficients, degree, size - degree);
+        Arrays.fill(coefficients, 0, degree, 0);
+        if (coefficient != 1) {
+            Kernels.scale(coefficients, degree, coefficient, coefficients, degree, size - degree);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(coefficients, 0, size, 0);
+        size = 0;
+    }
+
+    /**
+     * Returns {@code true} if nothing has been added since creation or the last {@link #clear()}.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int degree() {
+        return size - 1;
+    }
+
+    /**
+     * Returns the truncation degree, or {@link Integer#MAX_VALUE} if this accumulator is not truncated.
+     */
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Returns an immutable copy of the current value.
+     * The accumulator can be used further after this call.
+     */
+    public Polynomial toPolynomial() {
+        int length = size;
+        while (length > 1 && coefficients[length - 1] == 0) {
+            length--;
+        }
+        if (length == 0) {
+            return Polynomial.ZERO;
+        }
+        return new Polynomial(Arrays.copyOf(coefficients, length));
+    }
+
+    @Override
+    public String toString() {
+        return toPolynomial().toString();
+    }
+
+    private void addScaled(int[] c, int length, int factor, int shift) {
+        if (shift >= limit) {
+            return;
+        }
+        ensureSize(length + shift);
+        Kernels.addScaled(c, 0, factor, coefficients, shift, Math.min(length, size - shift));
+    }
+
+    private void multiply(int[] c, int length) {
+        if (size == 0) {
+            return;
+        }
+        if (length == 0) {
+            clear();
+            return;
+        }
+        int resultSize = (int) Math.min((long) size + length - 1, limit);
+        if (scratch.length < resultSize) {
+            scratch = new int[Math.max(resultSize, coefficients.length)];
+        }
+        Multiplication.mulAdd(coefficients, 0, size, c, 0, length, scratch, 0, resultSize);
+        int[] tmp = coefficients;
+        coefficients = scratch;
+        scratch = tmp;
+        Arrays.fill(scratch, 0, size, 0);
+        size = resultSize;
+    }
+
+    private void ensureSize(int newSize) {
+        newSize = Math.min(newSize, limit);
+        if (newSize <= size) {
+            return;
+        }
+        if (newSize > coefficients.length) {
+            coefficients = Arrays.copyOf(coefficients, Math.max(newSize, 2 * coefficients.length));
+        }
+        size = newSize;
+    }
+}
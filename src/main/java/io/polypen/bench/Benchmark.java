@@ -0,0 +1,187 @@
+package io.polypen.bench;
+
+import io.polypen.Polynomial;
+import io.polypen.parse.Macro;
+import io.polypen.parse.Parser;
+import io.polypen.parse.Parser.ListToken;
+import io.polypen.parse.Parser.Token;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs {@link Workload}s across sizes and reports, for each phase,
+ * throughput, latency percentiles and allocated bytes per operation.
+ */
+public final class Benchmark {
+
+    private static final long WARMUP_NANOS = 200_000_000L;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+    private static final int MIN_ITERATIONS = 5;
+    private static final int MAX_ITERATIONS = 10_000;
+
+    private static final boolean ALLOCATIONS_SUPPORTED = allocationsSupported();
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    public enum Phase {
+        PARSE, EXPAND, EVAL
+    }
+
+    /**
+     * Measurements of one phase.
+     * Latencies are in nanoseconds, {@code allocatedBytes} is per operation,
+     * or {@code -1} if allocations can't be measured, for example without the {@code jdk.management} module.
+     */
+    public record Result(
+            Workload workload,
+            int size,
+            Phase phase,
+            int iterations,
+            double opsPerSecond,
+            long p50,
+            long p90,
+            long p99,
+            long allocatedBytes) {
+    }
+
+    private static long sink;
+
+    public static void run(List<Workload> workloads, int[] sizes, Format format, PrintStream out) {
+        boolean first = true;
+        if (format == Format.CSV) {
+            out.println("workload,size,phase,iterations,ops_per_s,p50_ns,p90_ns,p99_ns,alloc_bytes_per_op");
+        } else {
+            out.println("[");
+        }
+        for (Workload workload : workloads) {
+            for (int size : sizes) {
+                for (Result result : measure(workload, size)) {
+                    if (format == Format.CSV) {
+                        out.println(csv(result));
+                    } else {
+                        out.print(first ? "  " : ",\n  ");
+                        out.print(json(result));
+                    }
+                    out.flush();
+                    first = false;
+                }
+            }
+        }
+        if (format == Format.JSON) {
+            out.println("\n]");
+        }
+    }
+
+    /**
+     * Runs one workload at one size, after a warmup on the same expression.
+     */
+    public static List<Result> measure(Workload workload, int size) {
+        String expression = workload.generate(size, size);
+        iterate(expression, WARMUP_NANOS, new long[Phase.values().length][MAX_ITERATIONS], new long[Phase.values().length]);
+        long[][] nanos = new long[Phase.values().length][MAX_ITERATIONS];
+        long[] allocated = new long[Phase.values().length];
+        int iterations = iterate(expression, MEASURE_NANOS, nanos, allocated);
+        return Arrays.stream(Phase.values())
+                .map(phase -> result(workload, size, phase, iterations, nanos[phase.ordinal()], allocated[phase.ordinal()]))
+                .toList();
+    }
+
+    private static int iterate(String expression, long budget, long[][] nanos, long[] allocated) {
+        long start = System.nanoTime();
+        int i = 0;
+        while (i < MAX_ITERATIONS && (i < MIN_ITERATIONS || System.nanoTime() - start < budget)) {
+            long a0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            ListToken parsed = Parser.parse(expression);
+            long t1 = System.nanoTime();
+            long a1 = allocatedBytes();
+            Token expanded = Macro.applyStarMacro(parsed);
+            long t2 = System.nanoTime();
+            long a2 = allocatedBytes();
+            Polynomial result = Parser.evalExpanded(expanded);
+            long t3 = System.nanoTime();
+            long a3 = allocatedBytes();
+            sink += result.degree();
+            nanos[Phase.PARSE.ordinal()][i] = t1 - t0;
+            nanos[Phase.EXPAND.ordinal()][i] = t2 - t1;
+            nanos[Phase.EVAL.ordinal()][i] = t3 - t2;
+            allocated[Phase.PARSE.ordinal()] += a1 - a0;
+            allocated[Phase.EXPAND.ordinal()] += a2 - a1;
+            allocated[Phase.EVAL.ordinal()] += a3 - a2;
+            i++;
+        }
+        if (!ALLOCATIONS_SUPPORTED) {
+            // reported as -1 per operation
+            Arrays.fill(allocated, -i);
+        }
+        return i;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS_SUPPORTED ? Allocations.THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static boolean allocationsSupported() {
+        try {
+            return Allocations.THREADS.isThreadAllocatedMemorySupported()
+                    && Allocations.THREADS.isThreadAllocatedMemoryEnabled();
+        } catch (LinkageError e) {
+            // jdk.management is not in the module graph
+            return false;
+        }
+    }
+
+    // the jdk.management dependency is optional, so it is only touched from here
+    private static final class Allocations {
+        static final com.sun.management.ThreadMXBean THREADS =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    private static Result result(Workload workload, int size, Phase phase, int iterations, long[] nanos, long allocated) {
+        long[] sorted = Arrays.copyOf(nanos, iterations);
+        Arrays.sort(sorted);
+        long total = Math.max(1, Arrays.stream(sorted).sum());
+        return new Result(
+                workload,
+                size,
+                phase,
+                iterations,
+                iterations * 1e9 / total,
+                percentile(sorted, 50),
+                percentile(sorted, 90),
+                percentile(sorted, 99),
+                allocated / iterations);
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static String csv(Result r) {
+        return String.format(Locale.ROOT, "%s,%d,%s,%d,%.1f,%d,%d,%d,%d",
+                name(r.workload()), r.size(), name(r.phase()), r.iterations(), r.opsPerSecond(),
+                r.p50(), r.p90(), r.p99(), r.allocatedBytes());
+    }
+
+    private static String json(Result r) {
+        return String.format(Locale.ROOT,
+                "{\"workload\": \"%s\", \"size\": %d, \"phase\": \"%s\", \"iterations\": %d, \"ops_per_s\": %.1f, " +
+                        "\"p50_ns\": %d, \"p90_ns\": %d, \"p99_ns\": %d, \"alloc_bytes_per_op\": %d}",
+                name(r.workload()), r.size(), name(r.phase()), r.iterations(), r.opsPerSecond(),
+                r.p50(), r.p90(), r.p99(), r.allocatedBytes());
+    }
+
+    private static String name(Enum<?> e) {
+        return e.name().toLowerCase(Locale.ROOT);
+    }
+
+    private Benchmark() {
+    }
+}
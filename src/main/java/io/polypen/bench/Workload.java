@@ -0,0 +1,93 @@
+package io.polypen.bench;
+
+import java.util.Random;
+
+/**
+ * Generators for parameterized expression shapes.
+ * The output only uses what {@link io.polypen.parse.Parser} understands:
+ * integer literals, {@code x^n}, {@code + - *} and parentheses.
+ */
+public enum Workload {
+
+    /**
+     * {@code (x + a) * (x - b) * ...} with {@code size} factors.
+     */
+    LINEAR_PRODUCT {
+        @Override
+        void generate(int size, Random random, StringBuilder sb) {
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    sb.append(" * ");
+                }
+                sb.append("(x ").append(sign(random)).append(' ').append(random.nextInt(10)).append(')');
+            }
+        }
+    },
+
+    /**
+     * {@code ((a * x + b) * x + c) * x + ...} nested {@code size} levels deep.
+     */
+    DEEP_NESTING {
+        @Override
+        void generate(int size, Random random, StringBuilder sb) {
+            sb.append("(".repeat(size)).append(1 + random.nextInt(9));
+            for (int i = 0; i < size; i++) {
+                sb.append(" * x ").append(sign(random)).append(' ').append(random.nextInt(10)).append(')');
+            }
+        }
+    },
+
+    /**
+     * A sum of {@code size} products of sparse binomials with exponents up to {@code 10 * size}.
+     */
+    SPARSE_POWERS {
+        @Override
+        void generate(int size, Random random, StringBuilder sb) {
+            int maxExponent = 10 * size;
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    sb.append(' ').append(sign(random)).append(' ');
+                }
+                sb.append("(x^").append(1 + random.nextInt(maxExponent))
+                        .append(' ').append(sign(random)).append(' ').append(1 + random.nextInt(9))
+                        .append(") * (x^").append(1 + random.nextInt(maxExponent))
+                        .append(' ').append(sign(random)).append(' ').append(1 + random.nextInt(9)).append(')');
+            }
+        }
+    },
+
+    /**
+     * A flat sum of {@code size} terms {@code c * x^e} with {@code e < size}.
+     */
+    HUGE_SUM {
+        @Override
+        void generate(int size, Random random, StringBuilder sb) {
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    sb.append(' ').append(sign(random)).append(' ');
+                }
+                sb.append(1 + random.nextInt(99)).append(" * x^").append(random.nextInt(size));
+            }
+        }
+    },
+    ;
+
+    abstract void generate(int size, Random random, StringBuilder sb);
+
+    /**
+     * Returns an expression of the given size.
+     * The same seed always produces the same expression.
+     */
+    public String generate(int size, long seed) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        StringBuilder sb = new StringBuilder();
+        generate(size, new Random(seed), sb);
+        return sb.toString();
+    }
+
+    private static char sign(Random random) {
+        return random.nextBoolean() ? '+' : '-';
+    }
+}
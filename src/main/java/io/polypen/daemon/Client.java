@@ -0,0 +1,52 @@
+package io.polypen.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Sends expressions to a running {@link Daemon}.
+ */
+public final class Client implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final BufferedReader in;
+    private final Writer out;
+
+    private Client(SocketChannel channel) {
+        this.channel = channel;
+        this.in = new BufferedReader(Channels.newReader(channel, UTF_8));
+        this.out = Channels.newWriter(channel, UTF_8);
+    }
+
+    public static Client connect(SocketAddress address) throws IOException {
+        return new Client(SocketChannel.open(address));
+    }
+
+    /**
+     * Evaluates a single-line expression on the daemon.
+     */
+    public String eval(String expression) throws IOException {
+        if (expression.indexOf('\n') >= 0 || expression.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("expression must be a single line");
+        }
+        out.write(expression);
+        out.write('\n');
+        out.flush();
+        String response = in.readLine();
+        if (response == null) {
+            throw new IOException("daemon closed the connection");
+        }
+        return response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
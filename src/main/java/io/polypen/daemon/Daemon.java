@@ -0,0 +1,209 @@
+package io.polypen.daemon;
+
+import io.polypen.parse.Parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+
+/**
+ * Long-running evaluation server.
+ * The protocol is line based: each request line is an expression,
+ * and the response line is the evaluated polynomial, or {@code error: ...}.
+ * Every connection is served by its own virtual thread.
+ * Pending requests of all connections are collected into batches,
+ * which are evaluated on a shared pool.
+ */
+public final class Daemon implements AutoCloseable {
+
+    public static final Path DEFAULT_SOCKET = Path.of(System.getProperty("java.io.tmpdir"), "polypen.sock");
+
+    private static final int MAX_BATCH = 256;
+
+    private final ServerSocketChannel server;
+    private final Path socketFile;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final ForkJoinPool evaluators = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread batcher = new Thread(this::dispatch, "polypen-batcher");
+
+    private record Request(String expression, CompletableFuture<String> response) {
+    }
+
+    private Daemon(ServerSocketChannel server, Path socketFile) {
+        this.server = server;
+        this.socketFile = socketFile;
+        batcher.setDaemon(true);
+        batcher.start();
+    }
+
+    /**
+     * Binds to the given address, which is either a {@link UnixDomainSocketAddress}
+     * or a localhost {@link InetSocketAddress}.
+     * A stale socket file, left behind by a daemon that did not exit cleanly, is replaced.
+     * Any other existing file at the socket path is an error.
+     */
+    public static Daemon bind(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Path path = unix.getPath();
+            if (Files.exists(path, NOFOLLOW_LINKS)) {
+                if (!Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS).isOther()) {
+                    throw new IOException("not a socket: " + path);
+                }
+                if (isListening(address)) {
+                    throw new IOException("daemon already listening on " + path);
+                }
+                Files.delete(path);
+            }
+            ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(address);
+            return new Daemon(server, path);
+        }
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(address);
+        return new Daemon(server, null);
+    }
+
+    /**
+     * Parses a command line argument: a port number means localhost TCP, anything else is a socket path.
+     */
+    public static SocketAddress address(String arg) {
+        if (!arg.isEmpty() && arg.chars().allMatch(Character::isDigit)) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(arg));
+        }
+        return UnixDomainSocketAddress.of(arg);
+    }
+
+    public SocketAddress localAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Accepts connections until this daemon is closed.
+     */
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            connections.execute(() -> handle(channel));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        batcher.interrupt();
+        connections.shutdownNow();
+        evaluators.shutdown();
+        for (Request request = queue.poll(); request != null; request = queue.poll()) {
+            request.response().complete("error: daemon closed");
+        }
+        if (socketFile != null) {
+            Files.deleteIfExists(socketFile);
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel;
+             BufferedReader in = new BufferedReader(Channels.newReader(channel, UTF_8));
+             Writer out = Channels.newWriter(channel, UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String response;
+                if (line.isBlank()) {
+                    response = "error: empty expression";
+                } else {
+                    Request request = new Request(line, new CompletableFuture<>());
+                    queue.add(request);
+                    try {
+                        response = request.response().get();
+                    } catch (InterruptedException e) {
+                        // daemon closed
+                        return;
+                    } catch (ExecutionException e) {
+                        response = error(e.getCause());
+                    }
+                }
+                out.write(response);
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client disconnected
+        }
+    }
+
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        int parallelism = evaluators.getParallelism();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                int chunks = Math.min(parallelism, batch.size());
+                int chunkSize = (batch.size() + chunks - 1) / chunks;
+                for (int i = 0; i < batch.size(); i += chunkSize) {
+                    List<Request> chunk = List.copyOf(batch.subList(i, Math.min(i + chunkSize, batch.size())));
+                    try {
+                        evaluators.execute(() -> chunk.forEach(Daemon::evaluate));
+                    } catch (RejectedExecutionException e) {
+                        chunk.forEach(request -> request.response().complete("error: daemon closed"));
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    // errors like StackOverflowError must be reported too, or the connection waits forever
+    private static void evaluate(Request request) {
+        try {
+            request.response().complete(Parser.eval(Parser.parse(request.expression())).toString());
+        } catch (Throwable e) {
+            request.response().complete(error(e));
+        }
+    }
+
+    private static String error(Throwable e) {
+        return "error: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+    }
+
+    private static boolean isListening(SocketAddress address) {
+        try (SocketChannel ignored = SocketChannel.open(address)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package io.polypen.parse;
+
+import io.polypen.PolynomialAccumulator;
+import io.polypen.parse.Parser.HeadToken;
+import io.polypen.parse.Parser.Symbol;
+import io.polypen.parse.Parser.Token;
+import io.polypen.parse.Parser.VarExp;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+import static io.polypen.parse.Parser.Symbol.P;
+
+/**
+ * Fork/join evaluation of an expanded token tree.
+ * Sums and products are split into halves of roughly equal estimated cost,
+ * and the halves are evaluated in parallel, then added or multiplied.
+ * Subtrees below {@link #THRESHOLD} are evaluated sequentially.
+ * A child is only forked if it has a sibling above the threshold to run in parallel with.
+ */
+final class ParallelEval {
+
+    // estimated number of coefficient operations
+    static final long THRESHOLD = 1 << 15;
+
+    private record Estimate(long degree, long cost) {
+    }
+
+    private final Map<Token, Estimate> estimates = new IdentityHashMap<>();
+    private final int truncation;
+
+    private ParallelEval(int truncation) {
+        this.truncation = truncation;
+    }
+
+    static PolynomialAccumulator eval(Token exprs, int truncation) {
+        ParallelEval eval = new ParallelEval(truncation);
+        eval.estimate(exprs);
+        if (eval.estimates.get(exprs).cost() < THRESHOLD) {
+            return eval.sequential(exprs);
+        }
+        return eval.new Task(exprs).invoke();
+    }
+
+    private PolynomialAccumulator sequential(Token token) {
+        PolynomialAccumulator result = PolynomialAccumulator.truncated(truncation);
+        Parser._eval(token, result);
+        return result;
+    }
+
+    private Estimate estimate(Token token) {
+        Estimate result = switch (token) {
+            case VarExp varExp -> new Estimate(Math.min(varExp.exp(), truncation), 1);
+            case HeadToken head -> {
+                long degree = 0;
+                long cost = 1;
+                for (Token child : head.getExprs()) {
+                    Estimate e = estimate(child);
+                    if (head.head() == P) {
+                        degree = Math.max(degree, e.degree());
+                        cost = saturatedAdd(cost, e.cost() + e.degree());
+                    } else {
+                        cost = saturatedAdd(cost, saturatedAdd(e.cost(), (degree + 1) * (e.degree() + 1)));
+                        degree = Math.min(degree + e.degree(), truncation);
+                    }
+                }
+                yield new Estimate(degree, cost);
+            }
+            default -> throw new IllegalStateException(token.toString());
+        };
+        estimates.put(token, result);
+        return result;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long r = a + b;
+        return r < 0 ? Long.MAX_VALUE : r;
+    }
+
+    // siblings of a heavy child, to be added to or multiplied with its value
+    private record Pending(Symbol head, List<Token> siblings, Task task) {
+    }
+
+    private final class Task extends RecursiveTask<PolynomialAccumulator> {
+        private final Symbol head;
+        private final List<Token> children;
+
+        // a subtree
+        Task(Token token) {
+            this(unwrap(token));
+        }
+
+        private Task(HeadToken token) {
+            this(token.head(), token.getExprs());
+        }
+
+        // a contiguous range of siblings
+        Task(Symbol head, List<Token> children) {
+            this.head = head;
+            this.children = children;
+        }
+
+        /**
+         * While only one child is above the threshold, there is nothing to run in parallel with it,
+         * so it is entered in this loop, rather than recursively.
+         * Its light siblings are evaluated afterwards, or forked if they are expensive together.
+         */
+        @Override
+        protected PolynomialAccumulator compute() {
+            List<Pending> pending = new ArrayList<>();
+            Symbol head = this.head;
+            List<Token> children = this.children;
+            while (true) {
+                int heavy = -1;
+                int heavyCount = 0;
+                for (int i = 0; i < children.size(); i++) {
+                    if (estimates.get(children.get(i)).cost() >= THRESHOLD) {
+                        heavy = i;
+                        heavyCount++;
+                    }
+                }
+                if (heavyCount != 1) {
+                    break;
+                }
+                List<Token> siblings = new ArrayList<>(children.size() - 1);
+                siblings.addAll(children.subList(0, heavy));
+                siblings.addAll(children.subList(heavy + 1, children.size()));
+                Task task = null;
+                if (cost(head, siblings) >= THRESHOLD) {
+                    task = new Task(head, siblings);
+                    task.fork();
+                }
+                pending.add(new Pending(head, siblings, task));
+                // a heavy child has children, a term costs 1
+                HeadToken child = unwrap(children.get(heavy));
+                head = child.head();
+                children = child.getExprs();
+            }
+            PolynomialAccumulator result = split(head, children);
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                Pending p = pending.get(i);
+                if (p.siblings().isEmpty()) {
+                    continue;
+                }
+                PolynomialAccumulator siblings = p.task() != null ? p.task().join() : sequential(p.head(), p.siblings());
+                if (p.head() == P) {
+                    result.add(siblings);
+                } else {
+                    result.multiply(siblings);
+                }
+            }
+            return result;
+        }
+
+        // none or several heavy children: fork at a cost-balanced split point
+        private PolynomialAccumulator split(Symbol head, List<Token> children) {
+            long[] prefix = prefixCost(head, children);
+            long total = prefix[children.size()];
+            if (total < THRESHOLD || children.size() == 1) {
+                return sequential(head, children);
+            }
+            int mid = 1;
+            while (mid < children.size() - 1 && prefix[mid] < total / 2) {
+                mid++;
+            }
+            Task left = new Task(head, children.subList(0, mid));
+            left.fork();
+            PolynomialAccumulator right = new Task(head, children.subList(mid, children.size())).compute();
+            PolynomialAccumulator result = left.join();
+            if (head == P) {
+                result.add(right);
+            } else {
+                result.multiply(right);
+            }
+            return result;
+        }
+    }
+
+    private PolynomialAccumulator sequential(Symbol head, List<Token> children) {
+        PolynomialAccumulator result = PolynomialAccumulator.truncated(truncation);
+        if (head == P) {
+            for (Token child : children) {
+                Parser._eval(child, result);
+            }
+        } else {
+            Parser.evalProduct(children, result);
+        }
+        return result;
+    }
+
+    private long cost(Symbol head, List<Token> children) {
+        return prefixCost(head, children)[children.size()];
+    }
+
+    // cost of evaluating children[0..i), as a sum or as a product chain
+    private long[] prefixCost(Symbol head, List<Token> children) {
+        long[] prefix = new long[children.size() + 1];
+        long degree = 0;
+        for (int i = 0; i < children.size(); i++) {
+            Estimate e = estimates.get(children.get(i));
+            long cost = e.cost();
+            if (head != P) {
+                cost = saturatedAdd(cost, (degree + 1) * (e.degree() + 1));
+                degree = Math.min(degree + e.degree(), truncation);
+            }
+            prefix[i + 1] = saturatedAdd(prefix[i], cost);
+        }
+        return prefix;
+    }
+
+    // a term becomes a sum with one element
+    private static HeadToken unwrap(Token token) {
+        while (token instanceof HeadToken h && h.size() == 1) {
+            token = h.getFirst();
+        }
+        if (token instanceof HeadToken h) {
+            return h;
+        }
+        return new HeadToken(P, List.of(token));
+    }
+}
@@ -1,7 +1,7 @@
 package io.polypen.parse;
 
-import io.polypen.Monomial;
 import io.polypen.Polynomial;
+import io.polypen.PolynomialAccumulator;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -13,8 +13,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-import static io.polypen.Polynomial.ONE;
-import static io.polypen.Polynomial.ZERO;
 import static io.polypen.parse.Parser.Symbol.M;
 import static io.polypen.parse.Parser.Symbol.P;
 
@@ -197,36 +195,97 @@ public final class Parser {
     public static final Token MULT = new MultToken();
 
     public static Polynomial eval(ListToken token) {
+        return eval(token, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Evaluates modulo {@code x^truncation}.
+     * Terms and partial products of degree {@code truncation} and above are dropped as soon as they appear.
+     */
+    public static Polynomial eval(ListToken token, int truncation) {
+        Token exprs = Macro.applyStarMacro(token);
+        return evalExpanded(exprs, truncation);
+    }
+
+    /**
+     * Compiles to a flat program which can be evaluated repeatedly, and from several threads.
+     */
+    public static Program compile(ListToken token) {
+        return Program.compile(Macro.applyStarMacro(token));
+    }
+
+    /**
+     * Evaluates a token that was already expanded by {@link Macro#applyStarMacro(Token)}.
+     */
+    public static Polynomial evalExpanded(Token exprs) {
+        return evalExpanded(exprs, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #eval(ListToken)}, but independent subtrees above a cost estimate
+     * are evaluated as fork/join tasks.
+     */
+    public static Polynomial evalParallel(ListToken token) {
+        return evalParallel(token, Integer.MAX_VALUE);
+    }
+
+    public static Polynomial evalParallel(ListToken token, int truncation) {
         Token exprs = Macro.applyStarMacro(token);
-        return _eval(exprs);
+        return ParallelEval.eval(exprs, truncation).toPolynomial();
     }
 
-    private static Polynomial _eval(Token exprs) {
-        return switch (exprs) {
+    private static Polynomial evalExpanded(Token exprs, int truncation) {
+        PolynomialAccumulator result = PolynomialAccumulator.truncated(truncation);
+        _eval(exprs, result);
+        return result.toPolynomial();
+    }
+
+    static void _eval(Token exprs, PolynomialAccumulator result) {
+        switch (exprs) {
             case HeadToken listExpr -> {
                 if (listExpr.value.size() == 1) {
-                    yield _eval(listExpr.value().getFirst());
+                    _eval(listExpr.value().getFirst(), result);
+                    return;
                 }
-                yield switch (listExpr.head) {
+                switch (listExpr.head) {
                     case P -> {
-                        Polynomial result = ZERO;
                         for (Token exp : exprs.getExprs()) {
-                            result = result.add(_eval(exp));
+                            _eval(exp, result);
                         }
-                        yield result;
                     }
-                    case M -> {
-                        Polynomial result = ONE;
-                        for (Token exp : exprs.getExprs()) {
-                            result = result.multiply(_eval(exp));
-                        }
-                        yield result;
-                    }
-                };
+                    case M -> evalProduct(exprs.getExprs(), result);
+                }
             }
-            case VarExp varExp -> new Monomial(varExp.factor, varExp.exp).polynomial();
+            case VarExp varExp -> result.addTerm(varExp.factor, varExp.exp);
             default -> throw new IllegalStateException(exprs.toString());
-        };
+        }
+    }
+
+    static void evalProduct(List<Token> factors, PolynomialAccumulator result) {
+        int truncation = result.limit();
+        PolynomialAccumulator product = result.isEmpty() ? result : PolynomialAccumulator.truncated(truncation);
+        PolynomialAccumulator factor = null;
+        product.addTerm(1, 0);
+        for (Token exp : factors) {
+            if (product.isEmpty()) {
+                // everything was truncated, the remaining factors don't matter
+                break;
+            }
+            if (exp instanceof VarExp varExp) {
+                product.multiplyTerm(varExp.factor, varExp.exp);
+            } else {
+                if (factor == null) {
+                    factor = PolynomialAccumulator.truncated(truncation);
+                } else {
+                    factor.clear();
+                }
+                _eval(exp, factor);
+                product.multiply(factor);
+            }
+        }
+        if (product != result) {
+            result.add(product);
+        }
     }
 
     private static boolean isOperator(Token token) {
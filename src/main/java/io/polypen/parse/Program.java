@@ -0,0 +1,264 @@
+package io.polypen.parse;
+
+import io.polypen.Polynomial;
+import io.polypen.PolynomialAccumulator;
+import io.polypen.parse.Parser.HeadToken;
+import io.polypen.parse.Parser.Token;
+import io.polypen.parse.Parser.VarExp;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static io.polypen.parse.Parser.Symbol.M;
+import static io.polypen.parse.Parser.Symbol.P;
+
+/**
+ * An expanded expression, lowered to a flat program for a stack machine.
+ * The program is stored as two parallel arrays: opcodes and operands.
+ * Term operands pack the factor into the high and the exponent into the low 32 bits.
+ * Programs are immutable and can be evaluated concurrently.
+ */
+public final class Program {
+
+    // push factor * x^exp
+    static final int PUSH_TERM = 0;
+    // top += factor * x^exp
+    static final int ADD_TERM = 1;
+    // top *= factor * x^exp
+    static final int MUL_TERM = 2;
+    // pop b, top += b
+    static final int ADD = 3;
+    // pop b, top *= b
+    static final int MUL = 4;
+
+    private static final String[] NAMES = {"push", "add_term", "mul_term", "add", "mul"};
+
+    private final int[] opcodes;
+    private final long[] operands;
+    private final int maxStack;
+
+    private Program(int[] opcodes, long[] operands, int maxStack) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.maxStack = maxStack;
+    }
+
+    /**
+     * Compiles a token that was expanded by {@link Macro#applyStarMacro(Token)}.
+     */
+    public static Program compile(Token expanded) {
+        Compiler compiler = new Compiler();
+        compiler.emit(expanded);
+        return new Program(
+                Arrays.copyOf(compiler.opcodes, compiler.size),
+                Arrays.copyOf(compiler.operands, compiler.size),
+                compiler.maxStack);
+    }
+
+    public Polynomial eval() {
+        return eval(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Evaluates modulo {@code x^truncation}.
+     */
+    public Polynomial eval(int truncation) {
+        PolynomialAccumulator[] stack = new PolynomialAccumulator[maxStack];
+        int sp = -1;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            long operand = operands[pc];
+            switch (opcodes[pc]) {
+                case PUSH_TERM -> {
+                    sp++;
+                    if (stack[sp] == null) {
+                        stack[sp] = PolynomialAccumulator.truncated(truncation);
+                    } else {
+                        stack[sp].clear();
+                    }
+                    stack[sp].addTerm(factor(operand), exp(operand));
+                }
+                case ADD_TERM -> stack[sp].addTerm(factor(operand), exp(operand));
+                case MUL_TERM -> stack[sp].multiplyTerm(factor(operand), exp(operand));
+                case ADD -> {
+                    stack[sp - 1].add(stack[sp]);
+                    sp--;
+                }
+                case MUL -> {
+                    stack[sp - 1].multiply(stack[sp]);
+                    sp--;
+                }
+                default -> throw new IllegalStateException("opcode " + opcodes[pc]);
+            }
+        }
+        return stack[0].toPolynomial();
+    }
+
+    /**
+     * Evaluates at {@code x}. Overflow wraps around, like the coefficient arithmetic.
+     */
+    public long evaluate(long x) {
+        long[] stack = new long[maxStack];
+        int sp = -1;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            long operand = operands[pc];
+            switch (opcodes[pc]) {
+                case PUSH_TERM -> stack[++sp] = term(operand, x);
+                case ADD_TERM -> stack[sp] += term(operand, x);
+                case MUL_TERM -> stack[sp] *= term(operand, x);
+                case ADD -> {
+                    stack[sp - 1] += stack[sp];
+                    sp--;
+                }
+                case MUL -> {
+                    stack[sp - 1] *= stack[sp];
+                    sp--;
+                }
+                default -> throw new IllegalStateException("opcode " + opcodes[pc]);
+            }
+        }
+        return stack[0];
+    }
+
+    public double evaluate(double x) {
+        double[] stack = new double[maxStack];
+        int sp = -1;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            long operand = operands[pc];
+            switch (opcodes[pc]) {
+                case PUSH_TERM -> stack[++sp] = term(operand, x);
+                case ADD_TERM -> stack[sp] += term(operand, x);
+                case MUL_TERM -> stack[sp] *= term(operand, x);
+                case ADD -> {
+                    stack[sp - 1] += stack[sp];
+                    sp--;
+                }
+                case MUL -> {
+                    stack[sp - 1] *= stack[sp];
+                    sp--;
+                }
+                default -> throw new IllegalStateException("opcode " + opcodes[pc]);
+            }
+        }
+        return stack[0];
+    }
+
+    public int size() {
+        return opcodes.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            sb.append(NAMES[opcodes[pc]]);
+            if (opcodes[pc] <= MUL_TERM) {
+                sb.append(' ').append(factor(operands[pc])).append(" x^").append(exp(operands[pc]));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static long term(long operand, long x) {
+        long result = factor(operand);
+        long base = x;
+        for (int e = exp(operand); e != 0; e >>>= 1) {
+            if ((e & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+        }
+        return result;
+    }
+
+    private static double term(long operand, double x) {
+        return factor(operand) * Math.pow(x, exp(operand));
+    }
+
+    private static long pack(int factor, int exp) {
+        return ((long) factor << 32) | (exp & 0xffffffffL);
+    }
+
+    private static int factor(long operand) {
+        return (int) (operand >> 32);
+    }
+
+    private static int exp(long operand) {
+        return (int) operand;
+    }
+
+    private static final class Compiler {
+        int[] opcodes = new int[16];
+        long[] operands = new long[16];
+        int size;
+        int stack;
+        int maxStack;
+
+        void emit(Token token) {
+            VarExp term = fold(token);
+            if (term != null) {
+                push(pack(term.factor(), term.exp()));
+                return;
+            }
+            switch (token) {
+                case HeadToken head -> {
+                    List<Token> exprs = head.getExprs();
+                    if (exprs.isEmpty()) {
+                        push(pack(head.head() == M ? 1 : 0, 0));
+                        return;
+                    }
+                    emit(exprs.getFirst());
+                    for (int i = 1; i < exprs.size(); i++) {
+                        Token exp = exprs.get(i);
+                        VarExp varExp = fold(exp);
+                        if (varExp != null) {
+                            add(head.head() == P ? ADD_TERM : MUL_TERM, pack(varExp.factor(), varExp.exp()));
+                        } else {
+                            emit(exp);
+                            add(head.head() == P ? ADD : MUL, 0);
+                            stack--;
+                        }
+                    }
+                }
+                default -> throw new IllegalStateException(token.toString());
+            }
+        }
+
+        // a product of terms, like "2x", is a single term
+        private static VarExp fold(Token token) {
+            if (token instanceof VarExp varExp) {
+                return varExp;
+            }
+            if (!(token instanceof HeadToken head) || head.head() != M || head.isEmpty()) {
+                return null;
+            }
+            int factor = 1;
+            int exp = 0;
+            for (Token t : head.getExprs()) {
+                VarExp varExp = fold(t);
+                if (varExp == null) {
+                    return null;
+                }
+                factor *= varExp.factor();
+                exp += varExp.exp();
+            }
+            return new VarExp(factor, exp);
+        }
+
+        private void push(long operand) {
+            add(PUSH_TERM, operand);
+            stack++;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void add(int opcode, long operand) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, 2 * size);
+                operands = Arrays.copyOf(operands, 2 * size);
+            }
+            opcodes[size] = opcode;
+            operands[size] = operand;
+            size++;
+        }
+    }
+}
@@ -1,2 +1,4 @@
 module io.polypen {
+    requires static jdk.management;
+    requires static jdk.incubator.vector;
 }
@@ -0,0 +1,89 @@
+package io.polypen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class KernelsTest {
+
+    private final Random random = new Random(0);
+
+    @Test
+    void addMatchesScalar() {
+        for (int length = 0; length < 80; length++) {
+            int[] a = randomCoefficients(length + 3);
+            int[] b = randomCoefficients(length + 5);
+            int[] expected = randomCoefficients(length + 7);
+            int[] actual = expected.clone();
+            Kernels.Scalar.add(a, 3, b, 1, expected, 2, length);
+            Kernels.Simd.add(a, 3, b, 1, actual, 2, length);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void subtractMatchesScalar() {
+        for (int length = 0; length < 80; length++) {
+            int[] a = randomCoefficients(length + 1);
+            int[] b = randomCoefficients(length + 2);
+            int[] expected = a.clone();
+            int[] actual = a.clone();
+            Kernels.Scalar.subtract(expected, 1, b, 2, expected, 1, length);
+            Kernels.Simd.subtract(actual, 1, b, 2, actual, 1, length);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void scaleMatchesScalar() {
+        for (int factor : new int[]{0, -1, 3, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            for (int length = 0; length < 80; length++) {
+                int[] a = randomCoefficients(length);
+                int[] expected = new int[length + 4];
+                int[] actual = new int[length + 4];
+                Kernels.Scalar.scale(a, 0, factor, expected, 4, length);
+                Kernels.Simd.scale(a, 0, factor, actual, 4, length);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    void addScaledMatchesScalar() {
+        for (int factor : new int[]{1, -7, 1 << 20}) {
+            for (int length = 0; length < 80; length++) {
+                int[] a = randomCoefficients(length + 1);
+                int[] expected = randomCoefficients(length + 3);
+                int[] actual = expected.clone();
+                Kernels.Scalar.addScaled(a, 1, factor, expected, 3, length);
+                Kernels.Simd.addScaled(a, 1, factor, actual, 3, length);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    void schoolbookMatchesScalar() {
+        int[] a = randomCoefficients(31);
+        int[] b = randomCoefficients(45);
+        int[] expected = new int[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) {
+                expected[i + j] += a[i] * b[j];
+            }
+        }
+        int[] actual = new int[expected.length];
+        Multiplication.schoolbook(a, 0, a.length, b, 0, b.length, actual, 0, actual.length);
+        assertArrayEquals(expected, actual);
+    }
+
+    private int[] randomCoefficients(int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = random.nextInt();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package io.polypen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiplicationTest {
+
+    private final Random random = new Random(0);
+
+    @Test
+    void karatsubaMatchesSchoolbook() {
+        int[][] sizes = {{32, 32}, {33, 70}, {100, 100}, {97, 250}, {257, 129}, {500, 40}, {1, 300}};
+        for (int[] size : sizes) {
+            int[] a = randomCoefficients(size[0]);
+            int[] b = randomCoefficients(size[1]);
+            assertArrayEquals(schoolbook(a, b, a.length + b.length - 1),
+                    Multiplication.multiply(a, a.length, b, b.length));
+        }
+    }
+
+    @Test
+    void shortProductMatchesSchoolbook() {
+        int[] a = randomCoefficients(200);
+        int[] b = randomCoefficients(150);
+        for (int limit : new int[]{0, 1, 31, 64, 99, 150, 201, 348}) {
+            int[] result = new int[limit];
+            Multiplication.mulAdd(a, 0, a.length, b, 0, b.length, result, 0, limit);
+            assertArrayEquals(schoolbook(a, b, limit), result);
+        }
+    }
+
+    @Test
+    void kroneckerMatchesSchoolbook() {
+        int[][] sizes = {{64, 64}, {65, 200}, {300, 301}, {1, 1}, {7, 1000}};
+        for (int bound : new int[]{1, 1000, 1 << 20}) {
+            for (int[] size : sizes) {
+                int[] a = randomCoefficients(size[0], bound);
+                int[] b = randomCoefficients(size[1], bound);
+                int[] result = new int[a.length + b.length - 1];
+                assertTrue(Multiplication.kronecker(a, 0, a.length, b, 0, b.length, result, 0));
+                assertArrayEquals(schoolbook(a, b, result.length), result);
+            }
+        }
+    }
+
+    @Test
+    void kroneckerRejectsWideCoefficients() {
+        int[] a = {Integer.MIN_VALUE, Integer.MAX_VALUE, -1};
+        int[] result = new int[5];
+        assertFalse(Multiplication.kronecker(a, 0, a.length, a, 0, a.length, result, 0));
+        int[] big = randomCoefficients(200, Integer.MAX_VALUE);
+        big[17] = Integer.MIN_VALUE;
+        assertArrayEquals(schoolbook(big, big, 399), Multiplication.multiply(big, big.length, big, big.length));
+    }
+
+    private int[] randomCoefficients(int n, int bound) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = random.nextInt(bound) - random.nextInt(bound);
+        }
+        return result;
+    }
+
+    private int[] randomCoefficients(int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = random.nextInt(2001) - 1000;
+        }
+        return result;
+    }
+
+    private static int[] schoolbook(int[] a, int[] b, int limit) {
+        int[] result = new int[limit];
+        Multiplication.schoolbook(a, 0, a.length, b, 0, b.length, result, 0, limit);
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package io.polypen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.polypen.Polynomial.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapPolynomialTest {
+
+    @Test
+    void addAndScale() {
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapPolynomial a = OffHeapPolynomial.of(arena, parse("x^3 + 2x - 1"));
+            OffHeapPolynomial b = OffHeapPolynomial.of(arena, parse("x + 1"));
+            assertEquals(parse("x^3 + 3x"), a.add(b, arena).toPolynomial());
+            assertEquals(parse("-3x - 3"), b.multiply(-3, arena).toPolynomial());
+            OffHeapPolynomial.subtract(a, b, a);
+            assertEquals(parse("x^3 + x - 2"), a.toPolynomial());
+        }
+    }
+
+    @Test
+    void multiply() {
+        Polynomial p = Polynomial.ONE;
+        for (int i = 0; i < 100; i++) {
+            p = p.multiply(parse("x - " + (i % 5)));
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapPolynomial a = OffHeapPolynomial.of(arena, p);
+            OffHeapPolynomial b = OffHeapPolynomial.of(arena, parse("x^2 - 3"));
+            assertEquals(p.multiply("x^2 - 3"), a.multiply(b, arena).toPolynomial());
+            assertEquals(p.multiply(p), a.multiply(a, arena).toPolynomial());
+            assertThrows(IllegalArgumentException.class, () -> OffHeapPolynomial.multiplyStaged(a, b, a));
+        }
+    }
+
+    @Test
+    void mappedFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("product.bin");
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapPolynomial a = OffHeapPolynomial.of(arena, parse("x - 1"));
+            OffHeapPolynomial b = OffHeapPolynomial.of(arena, parse("x + 1"));
+            OffHeapPolynomial result = OffHeapPolynomial.map(file, 3, arena);
+            OffHeapPolynomial.multiplyStaged(a, b, result);
+            result.force();
+        }
+        assertEquals(12, Files.size(file));
+        try (Arena arena = Arena.ofConfined()) {
+            assertEquals(parse("x^2 - 1"), OffHeapPolynomial.map(file, arena).toPolynomial());
+        }
+    }
+
+    @Test
+    void mapOverLongerFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("product.bin");
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapPolynomial old = OffHeapPolynomial.map(file, 10, arena);
+            OffHeapPolynomial.add(old, OffHeapPolynomial.of(arena, parse("x^9 + 2x^5 + 3")), old);
+            old.force();
+        }
+        assertEquals(40, Files.size(file));
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapPolynomial a = OffHeapPolynomial.of(arena, parse("x - 1"));
+            OffHeapPolynomial b = OffHeapPolynomial.of(arena, parse("x + 1"));
+            OffHeapPolynomial result = OffHeapPolynomial.map(file, 3, arena);
+            OffHeapPolynomial.multiplyStaged(a, b, result);
+            result.force();
+        }
+        assertEquals(12, Files.size(file));
+        try (Arena arena = Arena.ofConfined()) {
+            assertEquals(parse("x^2 - 1"), OffHeapPolynomial.map(file, arena).toPolynomial());
+        }
+    }
+
+    @Test
+    void emptyFile(@TempDir Path dir) throws IOException {
+        Path file = Files.createFile(dir.resolve("empty.bin"));
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapPolynomial p = OffHeapPolynomial.map(file, arena);
+            assertEquals(1, p.length());
+            assertEquals(0, p.degree());
+            assertEquals(Polynomial.ZERO, p.toPolynomial());
+            assertEquals(0, p.toPolynomial().degree());
+            assertThrows(IllegalArgumentException.class, () -> OffHeapPolynomial.wrap(arena.allocate(0)));
+        }
+    }
+}
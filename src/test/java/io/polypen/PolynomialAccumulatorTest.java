@@ -0,0 +1,64 @@
+package io.polypen;
+
+import org.junit.jupiter.api.Test;
+
+import static io.polypen.Polynomial.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PolynomialAccumulatorTest {
+
+    @Test
+    void add() {
+        PolynomialAccumulator acc = new PolynomialAccumulator(1);
+        acc.add(parse("x + 1"));
+        acc.add(parse("x^3 - 1"));
+        assertEquals(parse("x^3 + x"), acc.toPolynomial());
+    }
+
+    @Test
+    void addScaled() {
+        PolynomialAccumulator acc = new PolynomialAccumulator();
+        acc.addTerm(1, 0);
+        acc.addScaled(parse("x + 1"), -2, 2);
+        assertEquals(parse("-2x^3 - 2x^2 + 1"), acc.toPolynomial());
+    }
+
+    @Test
+    void addProduct() {
+        PolynomialAccumulator acc = new PolynomialAccumulator();
+        acc.addTerm(3, 0);
+        acc.addProduct(parse("x - 1"), parse("x + 1"));
+        assertEquals(parse("x^2 + 2"), acc.toPolynomial());
+    }
+
+    @Test
+    void multiplyInPlace() {
+        PolynomialAccumulator acc = new PolynomialAccumulator(1);
+        acc.addTerm(1, 0);
+        for (int i = 0; i < 4; i++) {
+            acc.multiply(parse("x + 1"));
+        }
+        acc.multiplyTerm(2, 1);
+        assertEquals(parse("2x^5 + 8x^4 + 12x^3 + 8x^2 + 2x"), acc.toPolynomial());
+    }
+
+    @Test
+    void toPolynomialIsSnapshot() {
+        PolynomialAccumulator acc = new PolynomialAccumulator();
+        acc.addTerm(1, 1);
+        Polynomial p = acc.toPolynomial();
+        acc.addTerm(-1, 1);
+        assertEquals(parse("x"), p);
+        assertEquals(Polynomial.ZERO, acc.toPolynomial());
+        assertEquals(0, acc.toPolynomial().degree());
+    }
+
+    @Test
+    void clear() {
+        PolynomialAccumulator acc = new PolynomialAccumulator();
+        acc.addTerm(5, 3);
+        acc.clear();
+        acc.addTerm(1, 0);
+        assertEquals(Polynomial.ONE, acc.toPolynomial());
+    }
+}
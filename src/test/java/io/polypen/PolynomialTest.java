@@ -6,10 +6,12 @@ import io.polypen.parse.Parser.ListToken;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Random;
 
 import static io.polypen.Polynomial.parse;
 import static io.polypen.parse.Parser.eval;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class PolynomialTest {
 
@@ -74,4 +76,119 @@ class PolynomialTest {
         Polynomial p = parse("-(x - 1)");
         assertEquals(parse("-x + 1"), p);
     }
+
+    @Test
+    void multiplyTruncated() {
+        assertEquals(parse("x^2 - 2x + 1"),
+                parse("x - 1").multiply("x^3 + x - 1").multiplyTruncated(Polynomial.ONE, 3));
+        assertEquals(parse("x - 1").multiply("x + 1").truncate(2),
+                parse("x - 1").multiplyTruncated(parse("x + 1"), 2));
+        assertEquals(Polynomial.ZERO, parse("x^4").multiplyTruncated(parse("x^3 + x"), 5));
+    }
+
+    @Test
+    void powTruncated() {
+        Polynomial p = parse("x + 1");
+        Polynomial full = Polynomial.ONE;
+        for (int i = 0; i < 10; i++) {
+            full = full.multiply(p);
+        }
+        assertEquals(full.truncate(4), p.powTruncated(10, 4));
+        assertEquals(parse("10x^2 + 5x + 1"), p.powTruncated(5, 3));
+    }
+
+    @Test
+    void inverseTruncated() {
+        Polynomial p = parse("1 - x");
+        assertEquals(parse("x^4 + x^3 + x^2 + x + 1"), p.inverseTruncated(5));
+        Polynomial q = parse("-1 + 3x - 7x^5 + 2x^40");
+        for (int n : new int[]{1, 2, 7, 64, 100}) {
+            assertEquals(Polynomial.ONE, q.multiplyTruncated(q.inverseTruncated(n), n));
+        }
+    }
+
+    @Test
+    void inverseNotAUnit() {
+        assertThrows(ArithmeticException.class, () -> parse("2 + x").inverseTruncated(3));
+    }
+
+    @Test
+    void compose() {
+        assertEquals(parse("x^4 + 2x^2"), parse("x^2 - 1").compose(parse("x^2 + 1")));
+        assertEquals(parse("7"), parse("x^3 - 1").compose(parse("2")));
+        Polynomial p = Polynomial.ONE;
+        for (int i = 0; i < 40; i++) {
+            p = p.multiply(parse("x - " + (i % 3)));
+        }
+        Polynomial q = parse("x^2 - 3x + 1");
+        Polynomial expected = Polynomial.ZERO;
+        for (int i = p.degree(); i >= 0; i--) {
+            expected = expected.multiply(q).add(Monomial.constant(p.coefficient(i)).polynomial());
+        }
+        assertEquals(expected, p.compose(q));
+    }
+
+    @Test
+    void taylorShift() {
+        assertEquals(parse("x^2 + 2x + 1"), parse("x^2").taylorShift(1));
+        assertEquals(parse("x^3"), parse("x^3 + 6x^2 + 12x + 8").taylorShift(-2));
+        Polynomial p = Polynomial.ONE;
+        for (int i = 0; i < 50; i++) {
+            p = p.multiply(parse("x + " + (i % 4)));
+        }
+        assertEquals(p.compose(parse("x + 3")), p.taylorShift(3));
+        assertEquals(p, p.taylorShift(5).taylorShift(-5));
+    }
+
+    @Test
+    void interpolate() {
+        assertEquals(parse("x^2 - 3x + 2"), Polynomial.interpolate(new long[]{0, 1, 2}, new long[]{2, 0, 0}));
+        assertEquals(parse("5"), Polynomial.interpolate(new long[]{-7}, new long[]{5}));
+        assertEquals(parse("-2x^3 + x"), Polynomial.interpolate(new long[]{3, -1, 0, 2}, new long[]{-51, 1, 0, -14}));
+        // x(x - 1) / 2
+        assertThrows(ArithmeticException.class, () -> Polynomial.interpolate(new long[]{0, 1, 2}, new long[]{0, 0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> Polynomial.interpolate(new long[]{1, 1}, new long[]{0, 0}));
+    }
+
+    @Test
+    void interpolateManyPoints() {
+        int n = 300;
+        long[] xs = new long[n];
+        long[] ys = new long[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = i - 150;
+            ys[i] = 7 * xs[i] * xs[i] - 1000000 * xs[i] + 3;
+        }
+        assertEquals(parse("7x^2 - 1000000x + 3"), Polynomial.interpolate(xs, ys));
+        ys[17]++;
+        assertThrows(ArithmeticException.class, () -> Polynomial.interpolate(xs, ys));
+    }
+
+    @Test
+    void interpolateModular() {
+        int p = 1000003;
+        // x(x - 1) / 2, with 1/2 = 500002 mod p
+        assertEquals(parse("500002x^2 + 500001x"), Polynomial.interpolate(new long[]{0, 1, 2}, new long[]{0, 0, 1}, p));
+        assertThrows(ArithmeticException.class, () -> Polynomial.interpolate(new long[]{1, 1 + p}, new long[]{0, 0}, p));
+        assertThrows(IllegalArgumentException.class, () -> Polynomial.interpolate(new long[]{1}, new long[]{0}, 1000));
+        Random random = new Random(0);
+        int modulus = 2147483629;
+        for (int n : new int[]{1, 10, 64, 65, 200, 1000}) {
+            int[] coefficients = new int[n];
+            for (int i = 0; i < n; i++) {
+                coefficients[i] = random.nextInt(modulus);
+            }
+            long[] xs = new long[n];
+            long[] ys = new long[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = 3L * i - n;
+                long y = 0;
+                for (int j = n - 1; j >= 0; j--) {
+                    y = Math.floorMod(y * xs[i] + coefficients[j], (long) modulus);
+                }
+                ys[i] = y;
+            }
+            assertEquals(new Polynomial(coefficients), Polynomial.interpolate(xs, ys, modulus));
+        }
+    }
 }
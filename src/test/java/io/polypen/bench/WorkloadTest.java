@@ -0,0 +1,28 @@
+package io.polypen.bench;
+
+import io.polypen.Polynomial;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkloadTest {
+
+    @Test
+    void generatesParsableExpressions() {
+        for (Workload workload : Workload.values()) {
+            for (int size : new int[]{1, 2, 17}) {
+                String expression = workload.generate(size, 42);
+                assertEquals(expression, workload.generate(size, 42));
+                Polynomial p = Polynomial.parse(expression);
+                assertTrue(p.degree() >= 0, workload + ": " + expression);
+            }
+        }
+    }
+
+    @Test
+    void linearProductDegree() {
+        assertEquals(20, Polynomial.parse(Workload.LINEAR_PRODUCT.generate(20, 1)).degree());
+        assertEquals(30, Polynomial.parse(Workload.DEEP_NESTING.generate(30, 1)).degree());
+    }
+}
@@ -0,0 +1,107 @@
+package io.polypen.daemon;
+
+import io.polypen.bench.Workload;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DaemonTest {
+
+    @Test
+    void unixSocket() throws Exception {
+        Path dir = Files.createTempDirectory("polypen");
+        Path socket = dir.resolve("test.sock");
+        try (Daemon daemon = start(UnixDomainSocketAddress.of(socket))) {
+            try (Client client = Client.connect(daemon.localAddress())) {
+                assertEquals("x^2 - 1", client.eval("(x - 1) * (x + 1)"));
+                assertEquals("2x + 3", client.eval("x + 1 + x + 2"));
+                assertTrue(client.eval("+").startsWith("error: "));
+            }
+        }
+        assertFalse(Files.exists(socket));
+        Files.delete(dir);
+    }
+
+    @Test
+    void concurrentClients() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (Daemon daemon = start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            SocketAddress address = daemon.localAddress();
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                int n = i;
+                results.add(executor.submit(() -> {
+                    try (Client client = Client.connect(address)) {
+                        return client.eval("(x + " + n + ") * (x - " + n + ")");
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i == 0 ? "x^2" : "x^2 - " + (i * i), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void blankLine() throws Exception {
+        try (Daemon daemon = start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             Client client = Client.connect(daemon.localAddress())) {
+            assertEquals("error: empty expression", client.eval(""));
+            assertEquals("error: empty expression", client.eval("   "));
+            assertEquals("x + 1", client.eval("x + 1"));
+        }
+    }
+
+    @Test
+    void stackOverflow() throws Exception {
+        try (Daemon daemon = start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             Client client = Client.connect(daemon.localAddress())) {
+            assertTrue(client.eval(Workload.DEEP_NESTING.generate(1_000_000, 1)).startsWith("error: "));
+            assertEquals("x^2 - 1", client.eval("(x - 1) * (x + 1)"));
+        }
+    }
+
+    @Test
+    void existingFile() throws Exception {
+        Path file = Files.createTempFile("polypen", ".txt");
+        try {
+            Files.writeString(file, "notes");
+            assertThrows(IOException.class, () -> Daemon.bind(UnixDomainSocketAddress.of(file)));
+            assertEquals("notes", Files.readString(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Daemon start(SocketAddress address) throws IOException {
+        Daemon daemon = Daemon.bind(address);
+        Thread thread = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return daemon;
+    }
+}
@@ -2,6 +2,7 @@ package io.polypen.parse;
 
 import io.polypen.Monomial;
 import io.polypen.Polynomial;
+import io.polypen.bench.Workload;
 import org.junit.jupiter.api.Test;
 
 import static io.polypen.parse.Macro.applyStarMacro;
@@ -14,6 +15,7 @@ import static io.polypen.parse.Parser.Token;
 import static io.polypen.parse.Parser.VarExp;
 import static io.polypen.parse.Parser.VarExp.constant;
 import static io.polypen.parse.Parser.eval;
+import static io.polypen.parse.Parser.evalParallel;
 import static io.polypen.parse.Parser.parse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -125,4 +127,44 @@ class ParserTest {
         assertEquals(eval(parse("-x + 1")),
                 eval(parse("-(x - 1)")));
     }
+
+    @Test
+    void sumOfProducts() {
+        Polynomial expected = Polynomial.parse("x + 1").multiply("x - 1")
+                .add(Polynomial.parse("x + 1").multiply(2).multiply("x"));
+        assertEquals(expected,
+                eval(parse("(x + 1) * (x - 1) + 2 * x * (x + 1)")));
+        assertEquals("3x^2 + 2x - 1", expected.toString());
+    }
+
+    @Test
+    void truncatedEval() {
+        String s = "(x + 1) * (x + 1) * (x + 1) * (x - 1) + x^9 * (x + 2) - 3x";
+        assertEquals(eval(parse(s)).truncate(3), eval(parse(s), 3));
+        assertEquals(Polynomial.ZERO, eval(parse("x^2 * (x + 1) * (x - 1)"), 2));
+        assertEquals(Polynomial.ZERO, eval(parse(s), 0));
+    }
+
+    @Test
+    void parallelEval() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            if (i > 0) {
+                sb.append(i % 3 == 0 ? " - " : " + ");
+            }
+            sb.append(Workload.LINEAR_PRODUCT.generate(60 + i, i));
+            sb.append(" * (").append(Workload.HUGE_SUM.generate(50, i)).append(")");
+        }
+        String s = sb.toString();
+        assertEquals(eval(parse(s)), evalParallel(parse(s)));
+        assertEquals(eval(parse(s), 70), evalParallel(parse(s), 70));
+        assertEquals(eval(parse("(x + 1) * (x - 1)")), evalParallel(parse("(x + 1) * (x - 1)")));
+    }
+
+    @Test
+    void parallelEvalDeepNesting() {
+        String s = Workload.DEEP_NESTING.generate(1000, 1);
+        assertEquals(eval(parse(s)), evalParallel(parse(s)));
+        assertEquals(eval(parse(s), 100), evalParallel(parse(s), 100));
+    }
 }
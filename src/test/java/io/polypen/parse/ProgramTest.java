@@ -0,0 +1,63 @@
+package io.polypen.parse;
+
+import io.polypen.Polynomial;
+import io.polypen.bench.Workload;
+import org.junit.jupiter.api.Test;
+
+import static io.polypen.parse.Parser.compile;
+import static io.polypen.parse.Parser.eval;
+import static io.polypen.parse.Parser.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProgramTest {
+
+    @Test
+    void evalMatchesParser() {
+        String[] expressions = {
+                "(x - 1) * (x + 1)",
+                "-(x - 1)",
+                "2x^6 - 4x^2 - 2x",
+                "(a + 1) - (a - 1)",
+                "1 * (2 + 3)",
+                "((x + 1) * x - 2) * (x^3 + 2) + 5x",
+        };
+        for (String s : expressions) {
+            assertEquals(eval(parse(s)), compile(parse(s)).eval(), s);
+        }
+        for (Workload workload : Workload.values()) {
+            String s = workload.generate(12, 7);
+            assertEquals(eval(parse(s)), compile(parse(s)).eval(), s);
+        }
+    }
+
+    @Test
+    void truncatedEval() {
+        String s = "(x + 1) * (x - 2) * (x + 3) + x^7 - 4";
+        assertEquals(eval(parse(s), 2), compile(parse(s)).eval(2));
+    }
+
+    @Test
+    void evaluateAtPoint() {
+        Program program = compile(parse("(x - 1) * (x + 1) * (x^2 + 1) - 3x"));
+        Polynomial p = program.eval();
+        for (long x = -5; x <= 5; x++) {
+            assertEquals(horner(p, x), program.evaluate(x));
+            assertEquals((double) horner(p, x), program.evaluate((double) x), 1e-9);
+        }
+    }
+
+    @Test
+    void compact() {
+        Program program = compile(parse("x^2 + 2x + 1"));
+        assertEquals(3, program.size());
+        assertEquals("push 1 x^2\nadd_term 2 x^1\nadd_term 1 x^0\n", program.toString());
+    }
+
+    private static long horner(Polynomial p, long x) {
+        long result = 0;
+        for (int i = p.degree(); i >= 0; i--) {
+            result = result * x + p.coefficient(i);
+        }
+        return result;
+    }
+}